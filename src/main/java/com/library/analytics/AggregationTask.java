@@ -0,0 +1,52 @@
+package com.library.analytics;
+
+import java.util.concurrent.RecursiveTask;
+
+// Fork-join по сегменти: всеки лист обхожда един сегмент, резултатите се сливат нагоре
+final class AggregationTask extends RecursiveTask<GroupAccumulator> {
+
+    private final ColumnSegment[] segments;
+    private final int from;
+    private final int to;
+    private final GroupBy groupBy;
+    private final int fromDay;
+    private final int toDay;
+
+    AggregationTask(ColumnSegment[] segments, int from, int to, GroupBy groupBy, int fromDay, int toDay) {
+        this.segments = segments;
+        this.from = from;
+        this.to = to;
+        this.groupBy = groupBy;
+        this.fromDay = fromDay;
+        this.toDay = toDay;
+    }
+
+    @Override
+    protected GroupAccumulator compute() {
+        if (to - from <= 1) {
+            return from < to ? scan(segments[from]) : new GroupAccumulator();
+        }
+        int middle = (from + to) >>> 1;
+        AggregationTask left = new AggregationTask(segments, from, middle, groupBy, fromDay, toDay);
+        AggregationTask right = new AggregationTask(segments, middle, to, groupBy, fromDay, toDay);
+        left.fork();
+        GroupAccumulator result = right.compute();
+        return result.merge(left.join());
+    }
+
+    private GroupAccumulator scan(ColumnSegment segment) {
+        GroupAccumulator accumulator = new GroupAccumulator();
+        int count = segment.count;
+        int[] borrowDays = segment.borrowDays;
+        int[] dueDays = segment.dueDays;
+        int[] returnDays = segment.returnDays;
+        for (int row = 0; row < count; row++) {
+            int borrowDay = borrowDays[row];
+            if (borrowDay < fromDay || borrowDay > toDay) {
+                continue;
+            }
+            accumulator.add(groupBy.keyOf(segment, row), borrowDay, dueDays[row], returnDays[row]);
+        }
+        return accumulator;
+    }
+}
@@ -0,0 +1,226 @@
+package com.library.analytics;
+
+import com.library.config.AnalyticsProperties;
+import com.library.datasource.DataSourceWorkload;
+import com.library.datasource.Workload;
+import com.library.dto.CirculationAggregate;
+import com.library.dto.CirculationEventDTO;
+import com.library.dto.EventBatch;
+import com.library.exception.DataNotReadyException;
+import com.library.exception.EventCursorExpiredException;
+import com.library.model.Book;
+import com.library.repository.ArchivedBorrowingRecordRepository;
+import com.library.repository.BookRepository;
+import com.library.repository.BorrowingRecordRepository;
+import com.library.repository.LoanFact;
+import com.library.service.CirculationEventFeed;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+
+// Колонна in-memory аналитика на заеманията (живи + архивирани).
+// Зарежда се веднъж (и всяка нощ наново), а между зарежданията се допълва
+// от feed-а със събития, така че заявките не стигат до OLTP базата.
+@Slf4j
+@Component
+@EnableConfigurationProperties(AnalyticsProperties.class)
+public class CirculationAnalytics {
+
+    // Retry-After, докато първоначалното зареждане не е завършило
+    private static final long LOADING_RETRY_AFTER_SECONDS = 10;
+
+    private final BorrowingRecordRepository borrowingRecordRepository;
+    private final ArchivedBorrowingRecordRepository archivedBorrowingRecordRepository;
+    private final BookRepository bookRepository;
+    private final CirculationEventFeed circulationEventFeed;
+    private final AnalyticsProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final ForkJoinPool pool;
+
+    // Зареждането и допълването не вървят едновременно
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    // null - още не е заредено
+    private volatile CirculationColumnStore store;
+    private long feedPosition;
+
+    public CirculationAnalytics(BorrowingRecordRepository borrowingRecordRepository,
+                                ArchivedBorrowingRecordRepository archivedBorrowingRecordRepository,
+                                BookRepository bookRepository,
+                                CirculationEventFeed circulationEventFeed,
+                                AnalyticsProperties properties,
+                                MeterRegistry meterRegistry) {
+        this.borrowingRecordRepository = borrowingRecordRepository;
+        this.archivedBorrowingRecordRepository = archivedBorrowingRecordRepository;
+        this.bookRepository = bookRepository;
+        this.circulationEventFeed = circulationEventFeed;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.pool = new ForkJoinPool(properties.getParallelism());
+
+        meterRegistry.gauge("library.analytics.rows", this, analytics -> {
+            CirculationColumnStore current = analytics.store;
+            return current == null ? 0 : current.rowCount();
+        });
+    }
+
+    // Първоначално зареждане след старт и пълно презареждане всяка нощ в 4:00
+    // (наваксва промени, които не минават през feed-а - напр. смяна на автора на книга)
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${library.analytics.rebuild-cron:0 0 4 * * *}")
+    @DataSourceWorkload(Workload.BATCH)
+    public void rebuild() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        log.info("Loading circulation analytics");
+        long started = System.currentTimeMillis();
+
+        refreshLock.lock();
+        try {
+            // Позицията се взема преди данните: събитията след нея може вече да са в заредените
+            // редове, но upsert по id на заемането ги прилага повторно без дублиране
+            long position = circulationEventFeed.lastPosition();
+
+            CirculationColumnStore fresh = new CirculationColumnStore(properties.getSegmentSize());
+            load(fresh, borrowingRecordRepository::findLoanFactsAfter);
+            load(fresh, archivedBorrowingRecordRepository::findLoanFactsAfter);
+
+            store = fresh;
+            feedPosition = position;
+            log.info("Circulation analytics loaded: {} loans in {} ms",
+                    fresh.rowCount(), System.currentTimeMillis() - started);
+        } finally {
+            refreshLock.unlock();
+        }
+        refresh();
+    }
+
+    // Допълване от feed-а
+    @Scheduled(fixedDelayString = "${library.analytics.refresh-interval-ms:2000}")
+    public void refresh() {
+        if (!refreshLock.tryLock()) {
+            return;
+        }
+        try {
+            CirculationColumnStore current = store;
+            if (current == null) {
+                return;
+            }
+            EventBatch batch;
+            do {
+                batch = circulationEventFeed.readAfter(feedPosition, properties.getFeedBatchSize());
+                for (CirculationEventDTO event : batch.getEvents()) {
+                    apply(current, event);
+                }
+                feedPosition = batch.getNextCursor();
+            } while (batch.isHasMore());
+        } catch (EventCursorExpiredException ex) {
+            // Пропуснатите събития се наваксват при следващото пълно презареждане
+            log.warn("Circulation analytics fell behind the event feed, skipping to its end: {}", ex.getMessage());
+            feedPosition = circulationEventFeed.lastPosition();
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    // from/to - по дата на заемане, включително; null - без ограничение
+    public List<CirculationAggregate> aggregate(GroupBy groupBy, LocalDate from, LocalDate to, int limit) {
+        CirculationColumnStore current = store;
+        if (current == null) {
+            throw new DataNotReadyException("Circulation analytics are still loading", LOADING_RETRY_AFTER_SECONDS);
+        }
+        int fromDay = from == null ? Integer.MIN_VALUE + 1 : Math.toIntExact(from.toEpochDay());
+        int toDay = to == null ? Integer.MAX_VALUE : Math.toIntExact(to.toEpochDay());
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        ColumnSegment[] segments = current.segments();
+        GroupAccumulator totals = pool.invoke(new AggregationTask(segments, 0, segments.length, groupBy, fromDay, toDay));
+
+        List<CirculationAggregate> result = new ArrayList<>(totals.size());
+        for (int slot = 0; slot < totals.size(); slot++) {
+            long returned = totals.returned(slot);
+            result.add(CirculationAggregate.builder()
+                    .key(groupBy.label(totals.key(slot), current))
+                    .loans(totals.loans(slot))
+                    .openLoans(totals.open(slot))
+                    .returnedLoans(returned)
+                    .averageLoanDays(returned == 0 ? null : (double) totals.loanDays(slot) / returned)
+                    .lateReturns(totals.late(slot))
+                    .build());
+        }
+        result.sort(Comparator.comparingLong(CirculationAggregate::getLoans).reversed()
+                .thenComparing(CirculationAggregate::getKey));
+        sample.stop(meterRegistry.timer("library.analytics.query", "groupBy", groupBy.name()));
+
+        return result.size() > limit ? result.subList(0, limit) : result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private void load(CirculationColumnStore target, BiFunction<Long, Limit, List<LoanFact>> source) {
+        int pageSize = properties.getLoadPageSize();
+        long lastId = 0L;
+        List<LoanFact> chunk;
+        do {
+            chunk = source.apply(lastId, Limit.of(pageSize));
+            for (LoanFact fact : chunk) {
+                target.upsert(fact.getId(), fact.getBookId(), fact.getPatronId(),
+                        epochDay(fact.getBorrowDate()), epochDay(fact.getDueDate()),
+                        fact.getReturnDate() == null ? CirculationColumnStore.OPEN : epochDay(fact.getReturnDate()),
+                        fact.getAuthor(), fact.getPublisher());
+                lastId = fact.getId();
+            }
+        } while (chunk.size() == pageSize);
+    }
+
+    private void apply(CirculationColumnStore target, CirculationEventDTO event) {
+        int eventDay = epochDay(event.getOccurredAt().toLocalDate());
+        switch (event.getType()) {
+            case BOOK_BORROWED -> {
+                Long bookId = event.getBookId();
+                String author;
+                String publisher;
+                if (target.knowsBook(bookId)) {
+                    author = target.authorOf(bookId);
+                    publisher = target.publisherOf(bookId);
+                } else {
+                    Optional<Book> book = bookRepository.findById(bookId);
+                    author = book.map(Book::getAuthor).orElse(null);
+                    publisher = book.map(Book::getPublisher).orElse(null);
+                }
+                target.upsert(event.getBorrowingRecordId(), bookId, event.getPatronId(),
+                        eventDay, epochDay(event.getDueDate()), CirculationColumnStore.OPEN, author, publisher);
+            }
+            case BOOK_RETURNED -> target.update(event.getBorrowingRecordId(), epochDay(event.getDueDate()), eventDay);
+            case LOAN_EXTENDED -> target.update(event.getBorrowingRecordId(), epochDay(event.getDueDate()),
+                    CirculationColumnStore.OPEN);
+            case STATUS_CHANGED -> {
+                // не засяга заеманията
+            }
+        }
+    }
+
+    private static int epochDay(LocalDate date) {
+        return Math.toIntExact(date.toEpochDay());
+    }
+}
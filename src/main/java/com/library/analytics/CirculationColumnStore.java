@@ -0,0 +1,112 @@
+package com.library.analytics;
+
+import java.util.Arrays;
+
+// Историята на заеманията като примитивни колони (дати - epoch day).
+// Пише един поток (зареждане, после опашката на feed-а); заявките четат без заключване
+// моментна снимка на сегментите.
+final class CirculationColumnStore {
+
+    // returnDays за още невърнато заемане
+    static final int OPEN = Integer.MIN_VALUE;
+
+    private static final int MISSING = -1;
+
+    private final int segmentSize;
+    private final LongIntHashMap rowsByRecordId = new LongIntHashMap(1 << 16);
+    private final LongIntHashMap authorsByBookId = new LongIntHashMap(1 << 12);
+    private final LongIntHashMap publishersByBookId = new LongIntHashMap(1 << 12);
+
+    final StringDictionary authors = new StringDictionary();
+    final StringDictionary publishers = new StringDictionary();
+
+    private volatile ColumnSegment[] segments = new ColumnSegment[0];
+
+    CirculationColumnStore(int segmentSize) {
+        this.segmentSize = segmentSize;
+    }
+
+    // Повторно подаден запис (at-least-once) само обновява сроковете
+    synchronized void upsert(long recordId, long bookId, long patronId,
+                             int borrowDay, int dueDay, int returnDay,
+                             String author, String publisher) {
+        int row = rowsByRecordId.get(recordId, MISSING);
+        if (row != MISSING) {
+            updateRow(row, dueDay, returnDay);
+            return;
+        }
+
+        int authorCode = authors.encode(author);
+        int publisherCode = publishers.encode(publisher);
+        authorsByBookId.put(bookId, authorCode);
+        publishersByBookId.put(bookId, publisherCode);
+
+        ColumnSegment segment = writableSegment();
+        int offset = segment.count;
+        segment.bookIds[offset] = Math.toIntExact(bookId);
+        segment.patronIds[offset] = Math.toIntExact(patronId);
+        segment.borrowDays[offset] = borrowDay;
+        segment.dueDays[offset] = dueDay;
+        segment.returnDays[offset] = returnDay;
+        segment.authors[offset] = authorCode;
+        segment.publishers[offset] = publisherCode;
+        segment.count = offset + 1;
+
+        rowsByRecordId.put(recordId, (segments.length - 1) * segmentSize + offset);
+    }
+
+    // Връщане или удължаване; false - заемането още не е заредено
+    synchronized boolean update(long recordId, int dueDay, int returnDay) {
+        int row = rowsByRecordId.get(recordId, MISSING);
+        if (row == MISSING) {
+            return false;
+        }
+        updateRow(row, dueDay, returnDay);
+        return true;
+    }
+
+    synchronized boolean knowsBook(long bookId) {
+        return authorsByBookId.get(bookId, MISSING) != MISSING;
+    }
+
+    synchronized String authorOf(long bookId) {
+        int code = authorsByBookId.get(bookId, MISSING);
+        return code == MISSING ? null : authors.decode(code);
+    }
+
+    synchronized String publisherOf(long bookId) {
+        int code = publishersByBookId.get(bookId, MISSING);
+        return code == MISSING ? null : publishers.decode(code);
+    }
+
+    ColumnSegment[] segments() {
+        return segments;
+    }
+
+    long rowCount() {
+        ColumnSegment[] snapshot = segments;
+        long rows = 0;
+        for (ColumnSegment segment : snapshot) {
+            rows += segment.count;
+        }
+        return rows;
+    }
+
+    private void updateRow(int row, int dueDay, int returnDay) {
+        ColumnSegment segment = segments[row / segmentSize];
+        int offset = row % segmentSize;
+        segment.dueDays[offset] = dueDay;
+        segment.returnDays[offset] = returnDay;
+    }
+
+    private ColumnSegment writableSegment() {
+        ColumnSegment[] current = segments;
+        if (current.length > 0 && !current[current.length - 1].isFull()) {
+            return current[current.length - 1];
+        }
+        ColumnSegment[] grown = Arrays.copyOf(current, current.length + 1);
+        grown[current.length] = new ColumnSegment(segmentSize);
+        segments = grown;
+        return grown[current.length];
+    }
+}
@@ -0,0 +1,30 @@
+package com.library.analytics;
+
+// Сегмент от колоните с фиксиран капацитет. Редовете се добавят само в края;
+// count е volatile и се увеличава след записа, така че [0, count) винаги е пълен ред.
+final class ColumnSegment {
+
+    final int[] bookIds;
+    final int[] patronIds;
+    final int[] borrowDays;
+    final int[] dueDays;
+    final int[] returnDays;
+    final int[] authors;
+    final int[] publishers;
+
+    volatile int count;
+
+    ColumnSegment(int capacity) {
+        bookIds = new int[capacity];
+        patronIds = new int[capacity];
+        borrowDays = new int[capacity];
+        dueDays = new int[capacity];
+        returnDays = new int[capacity];
+        authors = new int[capacity];
+        publishers = new int[capacity];
+    }
+
+    boolean isFull() {
+        return count == bookIds.length;
+    }
+}
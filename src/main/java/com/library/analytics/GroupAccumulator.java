@@ -0,0 +1,89 @@
+package com.library.analytics;
+
+import java.util.Arrays;
+
+// Частични суми по група: ключ -> слот, метриките в паралелни long масиви
+final class GroupAccumulator {
+
+    private final LongIntHashMap slots = new LongIntHashMap(256);
+    private int[] keys = new int[64];
+    private long[] loans = new long[64];
+    private long[] open = new long[64];
+    private long[] returned = new long[64];
+    private long[] loanDays = new long[64];
+    private long[] late = new long[64];
+    private int size;
+
+    void add(int key, int borrowDay, int dueDay, int returnDay) {
+        int slot = slotOf(key);
+        loans[slot]++;
+        if (returnDay == CirculationColumnStore.OPEN) {
+            open[slot]++;
+        } else {
+            returned[slot]++;
+            loanDays[slot] += returnDay - borrowDay;
+            if (returnDay > dueDay) {
+                late[slot]++;
+            }
+        }
+    }
+
+    GroupAccumulator merge(GroupAccumulator other) {
+        for (int i = 0; i < other.size; i++) {
+            int slot = slotOf(other.keys[i]);
+            loans[slot] += other.loans[i];
+            open[slot] += other.open[i];
+            returned[slot] += other.returned[i];
+            loanDays[slot] += other.loanDays[i];
+            late[slot] += other.late[i];
+        }
+        return this;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int key(int slot) {
+        return keys[slot];
+    }
+
+    long loans(int slot) {
+        return loans[slot];
+    }
+
+    long open(int slot) {
+        return open[slot];
+    }
+
+    long returned(int slot) {
+        return returned[slot];
+    }
+
+    long loanDays(int slot) {
+        return loanDays[slot];
+    }
+
+    long late(int slot) {
+        return late[slot];
+    }
+
+    private int slotOf(int key) {
+        int slot = slots.get(key, -1);
+        if (slot >= 0) {
+            return slot;
+        }
+        if (size == keys.length) {
+            int capacity = size * 2;
+            keys = Arrays.copyOf(keys, capacity);
+            loans = Arrays.copyOf(loans, capacity);
+            open = Arrays.copyOf(open, capacity);
+            returned = Arrays.copyOf(returned, capacity);
+            loanDays = Arrays.copyOf(loanDays, capacity);
+            late = Arrays.copyOf(late, capacity);
+        }
+        keys[size] = key;
+        slots.put(key, size);
+        return size++;
+    }
+}
@@ -0,0 +1,45 @@
+package com.library.analytics;
+
+// Измерение за групиране; MONTH и YEAR са по датата на заемане
+public enum GroupBy {
+    AUTHOR,
+    PUBLISHER,
+    BOOK,
+    PATRON,
+    MONTH,
+    YEAR;
+
+    int keyOf(ColumnSegment segment, int row) {
+        return switch (this) {
+            case AUTHOR -> segment.authors[row];
+            case PUBLISHER -> segment.publishers[row];
+            case BOOK -> segment.bookIds[row];
+            case PATRON -> segment.patronIds[row];
+            case MONTH -> monthOf(segment.borrowDays[row]);
+            case YEAR -> monthOf(segment.borrowDays[row]) / 12;
+        };
+    }
+
+    String label(int key, CirculationColumnStore store) {
+        return switch (this) {
+            case AUTHOR -> store.authors.decode(key);
+            case PUBLISHER -> store.publishers.decode(key);
+            case BOOK, PATRON, YEAR -> Integer.toString(key);
+            case MONTH -> String.format("%04d-%02d", key / 12, key % 12 + 1);
+        };
+    }
+
+    // year * 12 + (month - 1) от epoch day, без LocalDate на всеки ред
+    // (civil-from-days на H. Hinnant)
+    static int monthOf(int epochDay) {
+        int z = epochDay + 719468;
+        int era = (z >= 0 ? z : z - 146096) / 146097;
+        int dayOfEra = z - era * 146097;
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int shiftedMonth = (5 * dayOfYear + 2) / 153;
+        int month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+        int year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return year * 12 + month - 1;
+    }
+}
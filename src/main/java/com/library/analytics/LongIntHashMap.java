@@ -0,0 +1,90 @@
+package com.library.analytics;
+
+import java.util.Arrays;
+
+// long -> int с отворено адресиране, без boxing. Не е thread-safe - пише само един поток.
+final class LongIntHashMap {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    LongIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedSize * 2 - 1)) << 1;
+        allocate(capacity);
+    }
+
+    int get(long key, int missingValue) {
+        int index = indexOf(key);
+        return keys[index] == key ? values[index] : missingValue;
+    }
+
+    void put(long key, int value) {
+        if ((size + 1) * 2 > keys.length) {
+            rehash(keys.length << 1);
+        }
+        int index = indexOf(key);
+        if (keys[index] != key) {
+            keys[index] = key;
+            size++;
+        }
+        values[index] = value;
+    }
+
+    int size() {
+        return size;
+    }
+
+    // Обхождане на слотовете: за i от 0 до capacity(), ако hasKeyAt(i)
+    int capacity() {
+        return keys.length;
+    }
+
+    boolean hasKeyAt(int slot) {
+        return keys[slot] != EMPTY;
+    }
+
+    long keyAt(int slot) {
+        return keys[slot];
+    }
+
+    int valueAt(int slot) {
+        return values[slot];
+    }
+
+    private int indexOf(long key) {
+        int index = mix(key) & mask;
+        while (keys[index] != EMPTY && keys[index] != key) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int index = indexOf(oldKeys[i]);
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        values = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
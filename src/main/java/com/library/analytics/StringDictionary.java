@@ -0,0 +1,41 @@
+package com.library.analytics;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// Речниково кодиране на автор/издател: колоните пазят int код вместо низ.
+// Кодът се записва в сегмента след encode(), а сегментът се публикува с volatile брояч,
+// така че четящият винаги вижда вече записаната стойност.
+final class StringDictionary {
+
+    static final String UNKNOWN = "(unknown)";
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    private volatile String[] values = new String[64];
+    private int size;
+
+    synchronized int encode(String value) {
+        String key = value == null || value.isBlank() ? UNKNOWN : value;
+        Integer code = codes.get(key);
+        if (code != null) {
+            return code;
+        }
+        String[] current = values;
+        if (size == current.length) {
+            current = Arrays.copyOf(current, size * 2);
+        }
+        current[size] = key;
+        values = current;
+        codes.put(key, size);
+        return size++;
+    }
+
+    String decode(int code) {
+        return values[code];
+    }
+
+    synchronized int size() {
+        return size;
+    }
+}
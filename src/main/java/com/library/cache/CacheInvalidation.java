@@ -0,0 +1,6 @@
+package com.library.cache;
+
+// Съобщение за невалидиране на запис в локален кеш.
+// version == null означава безусловно изтриване (напр. при delete).
+public record CacheInvalidation(String cacheName, Long entityId, Long version, String originNode) {
+}
@@ -0,0 +1,12 @@
+package com.library.cache;
+
+import java.util.function.Consumer;
+
+// Канал, по който възлите си разпращат невалидирания на кешовете
+public interface CacheInvalidationBus {
+
+    // Извиква се в рамките на пишещата транзакция
+    void publish(CacheInvalidation invalidation);
+
+    void subscribe(Consumer<CacheInvalidation> listener);
+}
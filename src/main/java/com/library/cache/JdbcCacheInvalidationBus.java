@@ -0,0 +1,138 @@
+package com.library.cache;
+
+import com.library.config.LibraryCacheProperties;
+import com.library.model.CacheInvalidationEntry;
+import com.library.repository.CacheInvalidationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+// Шина през таблица cache_invalidations: записът става в същата транзакция
+// като промяната, а всеки възел периодично чете новите редове по id курсор.
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "library.cache.invalidation.bus", havingValue = "jdbc")
+@RequiredArgsConstructor
+public class JdbcCacheInvalidationBus implements CacheInvalidationBus {
+
+    private static final int POLL_BATCH_SIZE = 1000;
+
+    // По-голям скок в id-тата не се проследява ред по ред (напр. ръчно сменена sequence)
+    private static final int MAX_TRACKED_GAP = 10_000;
+
+    private final CacheInvalidationRepository cacheInvalidationRepository;
+    private final LibraryCacheProperties properties;
+
+    private final List<Consumer<CacheInvalidation>> listeners = new CopyOnWriteArrayList<>();
+
+    // id-тата се раздават при INSERT, а не при commit: ред с по-малко id може да стане видим
+    // след по-голямо. Пропуснатите id-та се помнят (id -> кога е забелязан пропускът) и се
+    // препрочитат, докато не се появят или не изтече gap-timeout (rollback).
+    // Полетата се ползват само от poll(), който не се изпълнява паралелно.
+    private final TreeMap<Long, Long> pendingGaps = new TreeMap<>();
+    private long highestSeenId = -1;
+
+    @Override
+    public void publish(CacheInvalidation invalidation) {
+        cacheInvalidationRepository.save(CacheInvalidationEntry.builder()
+                .cacheName(invalidation.cacheName())
+                .entityId(invalidation.entityId())
+                .entityVersion(invalidation.version())
+                .originNode(invalidation.originNode())
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+
+    @Override
+    public void subscribe(Consumer<CacheInvalidation> listener) {
+        listeners.add(listener);
+    }
+
+    @Scheduled(fixedDelayString = "${library.cache.invalidation.poll-interval-ms:1000}")
+    public void poll() {
+        if (highestSeenId < 0) {
+            // Кешовете при старт са празни - по-старите съобщения не са нужни
+            highestSeenId = cacheInvalidationRepository.findMaxId();
+            return;
+        }
+
+        long now = System.nanoTime();
+        int delivered = recheckGaps();
+
+        long cursor = highestSeenId;
+        List<CacheInvalidationEntry> entries;
+        do {
+            entries = cacheInvalidationRepository.findByIdGreaterThanOrderByIdAsc(cursor, Limit.of(POLL_BATCH_SIZE));
+            for (CacheInvalidationEntry entry : entries) {
+                long id = entry.getId();
+                cursor = id;
+                trackGaps(highestSeenId + 1, id, now);
+                highestSeenId = id;
+                deliver(entry);
+                delivered++;
+            }
+        } while (entries.size() == POLL_BATCH_SIZE);
+
+        long timeoutNanos = properties.getInvalidation().getGapTimeout().toNanos();
+        pendingGaps.values().removeIf(firstSeen -> now - firstSeen > timeoutNanos);
+
+        if (delivered > 0) {
+            log.debug("Delivered {} cache invalidations", delivered);
+        }
+    }
+
+    // Препрочитат се само чаканите id-та, а не всичко след най-малкия пропуск
+    private int recheckGaps() {
+        if (pendingGaps.isEmpty()) {
+            return 0;
+        }
+        List<Long> pending = new ArrayList<>(pendingGaps.keySet());
+        int delivered = 0;
+        for (int from = 0; from < pending.size(); from += POLL_BATCH_SIZE) {
+            List<Long> chunk = pending.subList(from, Math.min(from + POLL_BATCH_SIZE, pending.size()));
+            for (CacheInvalidationEntry entry : cacheInvalidationRepository.findByIdInOrderByIdAsc(chunk)) {
+                pendingGaps.remove(entry.getId());
+                deliver(entry);
+                delivered++;
+            }
+        }
+        return delivered;
+    }
+
+    private void trackGaps(long fromId, long toIdExclusive, long now) {
+        if (toIdExclusive - fromId > MAX_TRACKED_GAP) {
+            log.warn("Cache invalidation ids jumped from {} to {}; not waiting for the missing ids",
+                    fromId - 1, toIdExclusive);
+            return;
+        }
+        for (long missing = fromId; missing < toIdExclusive; missing++) {
+            pendingGaps.put(missing, now);
+        }
+    }
+
+    private void deliver(CacheInvalidationEntry entry) {
+        CacheInvalidation invalidation = new CacheInvalidation(
+                entry.getCacheName(), entry.getEntityId(), entry.getEntityVersion(), entry.getOriginNode());
+        listeners.forEach(listener -> listener.accept(invalidation));
+    }
+
+    // Почистване на стари съобщения - веднъж на час
+    @Scheduled(fixedDelay = 3_600_000, initialDelay = 60_000)
+    @Transactional
+    public void purgeExpired() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(properties.getInvalidation().getRetention());
+        int deleted = cacheInvalidationRepository.deleteOlderThan(cutoff);
+        log.info("Purged {} expired cache invalidations", deleted);
+    }
+}
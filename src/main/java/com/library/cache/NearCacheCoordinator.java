@@ -0,0 +1,128 @@
+package com.library.cache;
+
+import com.library.config.LibraryCacheProperties;
+import com.library.dto.Versioned;
+import com.library.model.Book;
+import com.library.model.Patron;
+import jakarta.persistence.EntityManagerFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+
+import java.util.Map;
+import java.util.UUID;
+
+// Поддържа локалните кешове на всички възли съгласувани чрез версиите (@Version).
+// Запис се изтрива само ако кешираната версия е по-стара от получената.
+@Slf4j
+@Component
+public class NearCacheCoordinator {
+
+    // Second-level регионите на Hibernate, които отговарят на DTO кешовете
+    private static final Map<String, Class<?>> ENTITY_REGIONS = Map.of(
+            "books", Book.class,
+            "patrons", Patron.class);
+
+    private final CacheManager cacheManager;
+    private final EntityManagerFactory entityManagerFactory;
+    private final CacheInvalidationBus bus;
+    private final String nodeId;
+
+    private final Counter published;
+    private final Counter evicted;
+    private final Counter skipped;
+
+    public NearCacheCoordinator(CacheManager cacheManager,
+                                EntityManagerFactory entityManagerFactory,
+                                CacheInvalidationBus bus,
+                                LibraryCacheProperties properties,
+                                MeterRegistry meterRegistry) {
+        this.cacheManager = cacheManager;
+        this.entityManagerFactory = entityManagerFactory;
+        this.bus = bus;
+
+        String configuredNodeId = properties.getInvalidation().getNodeId();
+        this.nodeId = StringUtils.hasText(configuredNodeId) ? configuredNodeId : UUID.randomUUID().toString();
+
+        this.published = meterRegistry.counter("library.cache.invalidations", "outcome", "published");
+        this.evicted = meterRegistry.counter("library.cache.invalidations", "outcome", "evicted");
+        this.skipped = meterRegistry.counter("library.cache.invalidations", "outcome", "skipped");
+
+        bus.subscribe(this::onInvalidation);
+        log.info("Near cache coordinator started on node {} using {}", nodeId, bus.getClass().getSimpleName());
+    }
+
+    // Вика се от пишещите методи; version == null - безусловно изтриване
+    public void invalidate(String cacheName, Long entityId, Long version) {
+        CacheInvalidation invalidation = new CacheInvalidation(cacheName, entityId, version, nodeId);
+        bus.publish(invalidation);
+        published.increment();
+
+        // @CacheEvict се изпълнява преди commit и паралелно четене може да върне
+        // старата версия в кеша - затова повтаряме проверката и след commit
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictIfStale(invalidation);
+                }
+            });
+        } else {
+            evictIfStale(invalidation);
+        }
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    private void onInvalidation(CacheInvalidation invalidation) {
+        if (nodeId.equals(invalidation.originNode())) {
+            return;
+        }
+        // Локалните записи Hibernate обезсилва сам; тук - само промени от другите възли
+        Class<?> entityType = ENTITY_REGIONS.get(invalidation.cacheName());
+        if (entityType != null) {
+            org.hibernate.Cache secondLevel = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+            secondLevel.evictEntityData(entityType, invalidation.entityId());
+            // ##NaturalId регионът държи isbn/email -> id; стойността може да е сменена
+            // на другия възел, а старият ключ не се знае - изтрива се целият регион на типа
+            secondLevel.evictNaturalIdData(entityType);
+            // Timestamps регионът е локален и не знае за записа на другия възел,
+            // затова кешираните резултати от заявки (findByStatus, countByStatus) се изтриват
+            secondLevel.evictQueryRegions();
+        }
+        evictIfStale(invalidation);
+    }
+
+    private void evictIfStale(CacheInvalidation invalidation) {
+        Cache cache = cacheManager.getCache(invalidation.cacheName());
+        if (cache == null) {
+            return;
+        }
+
+        Cache.ValueWrapper cached = cache.get(invalidation.entityId());
+        if (cached == null) {
+            return;
+        }
+
+        if (invalidation.version() != null
+                && cached.get() instanceof Versioned versioned
+                && versioned.getVersion() != null
+                && versioned.getVersion() >= invalidation.version()) {
+            skipped.increment();
+            return;
+        }
+
+        cache.evict(invalidation.entityId());
+        evicted.increment();
+        log.debug("Evicted {}[{}] (version {})", invalidation.cacheName(), invalidation.entityId(), invalidation.version());
+    }
+}
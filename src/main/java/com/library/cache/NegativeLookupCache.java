@@ -0,0 +1,51 @@
+package com.library.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Кратко помни ключове, които липсват в базата (id, ISBN, email),
+// за да не се изпълнява заявка при всяко повторно търсене на несъществуващ запис.
+// Кешовете са "<име>-missing" с кратък TTL (виж library.cache.specs).
+@Component
+@RequiredArgsConstructor
+public class NegativeLookupCache {
+
+    private final CacheManager cacheManager;
+
+    public boolean isMissing(String cacheName, String field, Object value) {
+        return missingCache(cacheName).get(key(field, value)) != null;
+    }
+
+    public void markMissing(String cacheName, String field, Object value) {
+        missingCache(cacheName).put(key(field, value), Boolean.TRUE);
+    }
+
+    // Вика се при създаване/промяна на ключ - веднага и още веднъж след commit,
+    // защото паралелно четене преди commit може отново да маркира ключа като липсващ
+    public void forget(String cacheName, String field, Object value) {
+        Cache cache = missingCache(cacheName);
+        String key = key(field, value);
+        cache.evict(key);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.evict(key);
+                }
+            });
+        }
+    }
+
+    private Cache missingCache(String cacheName) {
+        return cacheManager.getCache(cacheName + "-missing");
+    }
+
+    private static String key(String field, Object value) {
+        return field + ":" + value;
+    }
+}
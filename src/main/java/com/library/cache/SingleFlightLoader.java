@@ -0,0 +1,75 @@
+package com.library.cache;
+
+import com.library.config.LibraryCacheProperties;
+import com.library.exception.CacheLoadTimeoutException;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+// Обединява паралелните зареждания на един и същ ключ при cache miss:
+// само първата нишка ходи до базата, останалите чакат нейния резултат.
+@Component
+@RequiredArgsConstructor
+public class SingleFlightLoader {
+
+    private final LibraryCacheProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    private final ConcurrentHashMap<FlightKey, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    @SuppressWarnings("unchecked")
+    public <T> T load(String cacheName, Object key, Supplier<T> loader) {
+        FlightKey flightKey = new FlightKey(cacheName, key);
+        CompletableFuture<Object> promise = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(flightKey, promise);
+
+        if (existing == null) {
+            try {
+                T value = loader.get();
+                promise.complete(value);
+                return value;
+            } catch (RuntimeException | Error ex) {
+                promise.completeExceptionally(ex);
+                throw ex;
+            } finally {
+                inFlight.remove(flightKey, promise);
+            }
+        }
+
+        meterRegistry.counter("library.cache.stampede.avoided", "cache", cacheName).increment();
+        return (T) await(existing, cacheName, key);
+    }
+
+    private Object await(CompletableFuture<Object> future, String cacheName, Object key) {
+        long timeoutMillis = properties.getSingleFlightTimeout().toMillis();
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException ex) {
+            // Грешката на водещото зареждане (напр. ResourceNotFoundException) се връща на всички
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("Loading " + cacheName + " [" + key + "] failed", cause);
+        } catch (TimeoutException ex) {
+            throw new CacheLoadTimeoutException(
+                    "Timed out after " + timeoutMillis + " ms waiting for " + cacheName + " [" + key + "]");
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new CacheLoadTimeoutException("Interrupted while waiting for " + cacheName + " [" + key + "]");
+        }
+    }
+
+    private record FlightKey(String cacheName, Object key) {
+    }
+}
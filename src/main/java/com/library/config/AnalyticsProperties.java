@@ -0,0 +1,25 @@
+package com.library.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "library.analytics")
+public class AnalyticsProperties {
+
+    private boolean enabled = true;
+
+    // Нишки за паралелните агрегации (отделен ForkJoinPool, не common pool)
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    // Редове в сегмент - единицата работа на fork-join задачите
+    private int segmentSize = 64 * 1024;
+
+    // Редове на заявка при първоначалното зареждане
+    private int loadPageSize = 5000;
+
+    // Събития на четене от feed-а при допълването
+    private int feedBatchSize = 1000;
+
+    private int maxResults = 1000;
+}
@@ -0,0 +1,19 @@
+package com.library.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Period;
+
+@Data
+@ConfigurationProperties(prefix = "library.archive")
+public class ArchiveProperties {
+
+    private boolean enabled = true;
+
+    // Върнатите заемания, по-стари от това, се преместват в borrowing_records_archive
+    private Period minAge = Period.ofDays(180);
+
+    // Редове на транзакция - кратки транзакции, без дълги заключвания на живата таблица
+    private int batchSize = 1000;
+}
@@ -0,0 +1,38 @@
+package com.library.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Ограничени (W-TinyLFU) кешове с отделни размер и TTL за всеки кеш.
+// recordStats() е нужно, за да се публикуват cache.gets/cache.evictions в actuator.
+@Slf4j
+@Configuration
+@EnableConfigurationProperties(LibraryCacheProperties.class)
+public class CacheConfig {
+
+    @Bean
+    public CacheManager cacheManager(LibraryCacheProperties properties) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setAllowNullValues(false);
+        cacheManager.setCaffeine(builderFor(properties.getDefaultSpec()));
+
+        properties.getSpecs().forEach((name, spec) -> {
+            log.info("Configuring cache '{}' with max size {} and TTL {}", name, spec.getMaxSize(), spec.getTtl());
+            cacheManager.registerCustomCache(name, builderFor(spec).build());
+        });
+
+        return cacheManager;
+    }
+
+    private static Caffeine<Object, Object> builderFor(LibraryCacheProperties.Spec spec) {
+        return Caffeine.newBuilder()
+                .maximumSize(spec.getMaxSize())
+                .expireAfterWrite(spec.getTtl())
+                .recordStats();
+    }
+}
@@ -0,0 +1,28 @@
+package com.library.config;
+
+import com.library.web.EndpointClass;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "library.concurrency-limit")
+public class ConcurrencyLimitProperties {
+
+    private boolean enabled = true;
+
+    private int initialLimit = 20;
+    private int minLimit = 5;
+    private int maxLimit = 200;
+
+    // Колко бързо новата стойност измества старата (0..1)
+    private double smoothing = 0.2;
+
+    // Намаление на лимита при грешка 5xx
+    private double backoffRatio = 0.9;
+
+    // Каква част от лимита може да заеме всеки клас; по-ниските се отхвърлят първи
+    private Map<EndpointClass, Double> shares = new EnumMap<>(EndpointClass.class);
+}
@@ -0,0 +1,132 @@
+package com.library.config;
+
+import com.library.datasource.DataSourceWorkload;
+import com.library.datasource.ReplicaPool;
+import com.library.datasource.Workload;
+import com.library.datasource.WorkloadRoutingDataSource;
+import com.library.datasource.WorkloadRoutingInterceptor;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.annotation.Schedules;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+// Отделни пулове за заемане/връщане (OLTP), справки (REPORTING) и планирани задачи (BATCH),
+// за да не може бавна справка да блокира обслужването на гишетата.
+// Всеки пул има собствени настройки и hikaricp.* метрики с pool=<име>.
+@Configuration
+@EnableConfigurationProperties(ReplicaProperties.class)
+public class DataSourceConfig {
+
+    // Основният пул запазва старите настройки spring.datasource.hikari.*
+    @Bean
+    @ConfigurationProperties(prefix = "spring.datasource.hikari")
+    public HikariDataSource oltpDataSource(Environment environment) {
+        return newPool(environment, "oltp");
+    }
+
+    @Bean
+    @ConfigurationProperties(prefix = "library.datasource.reporting")
+    public HikariDataSource reportingDataSource(Environment environment) {
+        return newPool(environment, "reporting");
+    }
+
+    @Bean
+    @ConfigurationProperties(prefix = "library.datasource.batch")
+    public HikariDataSource batchDataSource(Environment environment) {
+        return newPool(environment, "batch");
+    }
+
+    // Реплики за четене - само ако е зададена поне една (library.datasource.replica.nodes[0].url)
+    @Bean
+    @ConditionalOnProperty(name = "library.datasource.replica.nodes[0].url")
+    public ReplicaPool replicaPool(ReplicaProperties properties, Environment environment,
+                                   MeterRegistry meterRegistry) {
+        return new ReplicaPool(properties, environment, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("oltpDataSource") DataSource oltp,
+                                 @Qualifier("reportingDataSource") DataSource reporting,
+                                 @Qualifier("batchDataSource") DataSource batch,
+                                 ObjectProvider<ReplicaPool> replicaPool) {
+        WorkloadRoutingDataSource routing = new WorkloadRoutingDataSource(replicaPool.getIfAvailable());
+        routing.setTargetDataSources(Map.of(
+                Workload.OLTP, oltp,
+                Workload.REPORTING, reporting,
+                Workload.BATCH, batch));
+        routing.setDefaultTargetDataSource(oltp);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    // Инфраструктурен advisor - прилага се от същия auto-proxy creator като @Transactional
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor workloadRoutingAdvisor() {
+        ComposablePointcut pointcut = new ComposablePointcut(
+                new AnnotationMatchingPointcut(DataSourceWorkload.class, true))
+                .union(AnnotationMatchingPointcut.forMethodAnnotation(DataSourceWorkload.class))
+                .union(AnnotationMatchingPointcut.forMethodAnnotation(Scheduled.class))
+                .union(AnnotationMatchingPointcut.forMethodAnnotation(Schedules.class));
+
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(pointcut, new WorkloadRoutingInterceptor());
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return advisor;
+    }
+
+    // Отделен executor за поточните експорти, за да не заемат нишките на заявките
+    @Bean
+    @ConfigurationProperties(prefix = "library.reporting.executor")
+    public ThreadPoolTaskExecutor reportingExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("reporting-");
+        return executor;
+    }
+
+    @Bean
+    public WebMvcConfigurer reportingAsyncSupport(@Qualifier("reportingExecutor") ThreadPoolTaskExecutor executor) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+                configurer.setTaskExecutor(executor);
+            }
+        };
+    }
+
+    private static HikariDataSource newPool(Environment environment, String name) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName(name);
+        dataSource.setJdbcUrl(environment.getRequiredProperty("spring.datasource.url"));
+        dataSource.setUsername(environment.getProperty("spring.datasource.username"));
+        dataSource.setPassword(environment.getProperty("spring.datasource.password"));
+        String driverClassName = environment.getProperty("spring.datasource.driver-class-name");
+        if (driverClassName != null) {
+            dataSource.setDriverClassName(driverClassName);
+        }
+        return dataSource;
+    }
+}
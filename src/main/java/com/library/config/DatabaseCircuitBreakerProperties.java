@@ -0,0 +1,17 @@
+package com.library.config;
+
+import lombok.Data;
+
+import java.time.Duration;
+
+@Data
+public class DatabaseCircuitBreakerProperties {
+
+    private boolean enabled = true;
+
+    // Брой последователни грешки при свързване, след които прекъсвачът се отваря
+    private int failureThreshold = 3;
+
+    // Максимално време за проверка на връзката при пробата за възстановяване
+    private Duration probeTimeout = Duration.ofSeconds(2);
+}
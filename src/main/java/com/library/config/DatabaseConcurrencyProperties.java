@@ -0,0 +1,15 @@
+package com.library.config;
+
+import lombok.Data;
+
+import java.time.Duration;
+
+@Data
+public class DatabaseConcurrencyProperties {
+
+    // 0 - колкото е maximum-pool-size на Hikari
+    private int permits = 0;
+
+    // Колко време една заявка чака свободна връзка, преди да получи грешка
+    private Duration acquireTimeout = Duration.ofSeconds(30);
+}
@@ -0,0 +1,55 @@
+package com.library.config;
+
+import com.library.datasource.CircuitBreakingDataSource;
+import com.library.datasource.ConnectionLimitingDataSource;
+import com.library.datasource.DatabaseCircuitBreaker;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+// Прекъсвач пред всеки пул от връзки. Обвива пула след ConnectionLimitingDataSource,
+// за да се отказва веднага, без да се чака на семафора.
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "library.db.circuit-breaker.enabled", havingValue = "true", matchIfMissing = true)
+public class DatabaseResilienceConfig {
+
+    @Bean
+    public static DatabaseCircuitBreaker databaseCircuitBreaker(Environment environment) {
+        DatabaseCircuitBreakerProperties properties = Binder.get(environment)
+                .bindOrCreate("library.db.circuit-breaker", DatabaseCircuitBreakerProperties.class);
+        return new DatabaseCircuitBreaker(properties.getFailureThreshold(), properties.getProbeTimeout());
+    }
+
+    // Конкретният тип (не BeanPostProcessor), за да види Spring Ordered още при
+    // предвиждането на типа - иначе редът спрямо ConnectionLimitingPostProcessor е случаен
+    @Bean
+    public static CircuitBreakingPostProcessor circuitBreakingPostProcessor(
+            ObjectProvider<DatabaseCircuitBreaker> breaker) {
+        return new CircuitBreakingPostProcessor(breaker);
+    }
+
+    record CircuitBreakingPostProcessor(ObjectProvider<DatabaseCircuitBreaker> breaker)
+            implements BeanPostProcessor, Ordered {
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof HikariDataSource || bean instanceof ConnectionLimitingDataSource) {
+                return new CircuitBreakingDataSource((DataSource) bean, breaker.getObject());
+            }
+            return bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE + 10;
+        }
+    }
+}
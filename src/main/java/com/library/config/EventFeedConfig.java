@@ -0,0 +1,40 @@
+package com.library.config;
+
+import com.library.events.CirculationEventConsumer;
+import com.library.events.FileEventConsumer;
+import com.library.events.InMemoryEventConsumer;
+import com.library.events.LocalEventFeedPoller;
+import com.library.service.CirculationEventFeed;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+
+// Локален консуматор на circulation feed-а: library.events.local-consumer.type=memory|file
+@Configuration
+@EnableConfigurationProperties(EventFeedProperties.class)
+public class EventFeedConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "library.events.local-consumer.type", havingValue = "memory")
+    public InMemoryEventConsumer inMemoryEventConsumer() {
+        return new InMemoryEventConsumer();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "library.events.local-consumer.type", havingValue = "file")
+    public FileEventConsumer fileEventConsumer(EventFeedProperties properties, JsonMapper jsonMapper) throws IOException {
+        return new FileEventConsumer(properties.getLocalConsumer().getFile(), jsonMapper);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "library.events.local-consumer.type")
+    public LocalEventFeedPoller localEventFeedPoller(CirculationEventFeed feed,
+                                                     CirculationEventConsumer consumer,
+                                                     EventFeedProperties properties) {
+        return new LocalEventFeedPoller(feed, consumer, properties.getLocalConsumer().getBatchSize());
+    }
+}
@@ -0,0 +1,40 @@
+package com.library.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Period;
+
+@Data
+@ConfigurationProperties(prefix = "library.events")
+public class EventFeedProperties {
+
+    // Събития, номерирани в една транзакция на relay-а
+    private int relayBatchSize = 500;
+
+    // Горна граница на limit в /api/events
+    private int maxPageSize = 1000;
+
+    // Публикуваните събития се пазят толкова; консуматорите трябва да четат по-често
+    private Period retention = Period.ofDays(30);
+
+    private LocalConsumer localConsumer = new LocalConsumer();
+
+    @Data
+    public static class LocalConsumer {
+
+        // memory или file; без стойност - изключен
+        private Type type;
+
+        // NDJSON файл за type=file; курсорът се пази до него (<file>.cursor)
+        private Path file = Path.of("circulation-events.ndjson");
+
+        private int batchSize = 200;
+    }
+
+    public enum Type {
+        MEMORY,
+        FILE
+    }
+}
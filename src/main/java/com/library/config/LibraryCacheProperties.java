@@ -0,0 +1,42 @@
+package com.library.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "library.cache")
+public class LibraryCacheProperties {
+
+    // Настройки за кешове, които не са описани изрично в specs
+    private Spec defaultSpec = new Spec();
+
+    // Настройки по име на кеш (books, patrons, ...)
+    private Map<String, Spec> specs = new LinkedHashMap<>();
+
+    private Invalidation invalidation = new Invalidation();
+
+    // Колко време чакащите заявки изчакват едно общо зареждане от базата
+    private Duration singleFlightTimeout = Duration.ofSeconds(5);
+
+    @Data
+    public static class Spec {
+        private long maxSize = 1000;
+        private Duration ttl = Duration.ofMinutes(10);
+    }
+
+    @Data
+    public static class Invalidation {
+        // loopback (един процес) или jdbc (таблица cache_invalidations + polling)
+        private String bus = "loopback";
+        // Празно - генерира се случаен идентификатор при старт
+        private String nodeId;
+        // Колко дълго се чака пропуснато id (транзакция, която още не е commit-ната);
+        // след това се приема, че е rollback. Трябва да е по-малко от retention.
+        private Duration gapTimeout = Duration.ofMinutes(5);
+        private Duration retention = Duration.ofHours(1);
+    }
+}
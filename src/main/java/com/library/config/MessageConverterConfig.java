@@ -0,0 +1,60 @@
+package com.library.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.jackson.autoconfigure.JacksonProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.JacksonCborHttpMessageConverter;
+import org.springframework.http.converter.smile.JacksonSmileHttpMessageConverter;
+import tools.jackson.databind.JacksonModule;
+import tools.jackson.databind.cfg.MapperBuilder;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+import java.text.SimpleDateFormat;
+
+// Бинарни формати за машинни клиенти (сортировачи, киоски, sync задачи).
+// Избират се чрез Accept: application/cbor или application/x-jackson-smile;
+// JSON остава формат по подразбиране.
+@Configuration
+public class MessageConverterConfig {
+
+    @Bean
+    public JacksonCborHttpMessageConverter jacksonCborHttpMessageConverter(JacksonProperties jacksonProperties,
+                                                                           ObjectProvider<JacksonModule> modules) {
+        return new JacksonCborHttpMessageConverter(
+                configure(CBORMapper.builder(), jacksonProperties, modules).build());
+    }
+
+    @Bean
+    public JacksonSmileHttpMessageConverter jacksonSmileHttpMessageConverter(JacksonProperties jacksonProperties,
+                                                                             ObjectProvider<JacksonModule> modules) {
+        return new JacksonSmileHttpMessageConverter(
+                configure(SmileMapper.builder(), jacksonProperties, modules).build());
+    }
+
+    // Същите spring.jackson.* настройки и модули като JSON mapper-а, за да не се различават
+    // датите, часовата зона и пропуснатите null полета между форматите
+    private static <B extends MapperBuilder<?, B>> B configure(B builder, JacksonProperties properties,
+                                                              ObjectProvider<JacksonModule> modules) {
+        builder.addModules(modules.orderedStream().toList());
+        if (properties.getTimeZone() != null) {
+            builder.defaultTimeZone(properties.getTimeZone());
+        }
+        if (properties.getDateFormat() != null) {
+            SimpleDateFormat dateFormat = new SimpleDateFormat(properties.getDateFormat());
+            if (properties.getTimeZone() != null) {
+                dateFormat.setTimeZone(properties.getTimeZone());
+            }
+            builder.defaultDateFormat(dateFormat);
+        }
+        if (properties.getDefaultPropertyInclusion() != null) {
+            builder.changeDefaultPropertyInclusion(inclusion -> inclusion
+                    .withValueInclusion(properties.getDefaultPropertyInclusion())
+                    .withContentInclusion(properties.getDefaultPropertyInclusion()));
+        }
+        properties.getSerialization().forEach(builder::configure);
+        properties.getDeserialization().forEach(builder::configure);
+        return builder;
+    }
+}
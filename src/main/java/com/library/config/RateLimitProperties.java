@@ -0,0 +1,38 @@
+package com.library.config;
+
+import com.library.web.EndpointClass;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+@Data
+@ConfigurationProperties(prefix = "library.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    // Клиентите с познат API ключ имат собствен бюджет; останалите - по IP адрес
+    private String apiKeyHeader = "X-API-Key";
+
+    // Издадените ключове; празно - всички заявки се броят по IP адрес
+    private Set<String> apiKeys = new HashSet<>();
+
+    // Таблицата с buckets е ограничена; неактивните клиенти се изчистват
+    private long maxClients = 100_000;
+    private Duration idleTimeout = Duration.ofMinutes(10);
+
+    private Map<EndpointClass, Budget> budgets = new EnumMap<>(EndpointClass.class);
+
+    @Data
+    public static class Budget {
+        // Максимален брой заявки наведнъж (burst)
+        private long capacity = 50;
+        // Колко заявки в секунда се възстановяват
+        private double refillPerSecond = 20;
+    }
+}
@@ -0,0 +1,31 @@
+package com.library.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Period;
+
+@Data
+@ConfigurationProperties(prefix = "library.recommendations")
+public class RecommendationProperties {
+
+    private boolean enabled = true;
+
+    // Съседи, пазени на книга; картата расте до 2x и тогава се подрязва
+    private int maxNeighbors = 100;
+
+    // Последните N книги на читател, с които се броят съвпаденията
+    private int historySize = 20;
+
+    // Тегло на съвпадение за всеки ден възраст (0.99 - наполовина за ~69 дни)
+    private double decayFactor = 0.99;
+
+    // Двойки с избледнял брой под този отпадат при уплътняването
+    private double minCount = 0.1;
+
+    // Читатели без заемане толкова време се забравят
+    private Period historyRetention = Period.ofDays(365);
+
+    // Събития на четене от feed-а при допълването
+    private int feedBatchSize = 1000;
+}
@@ -0,0 +1,43 @@
+package com.library.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "library.datasource.replica")
+public class ReplicaProperties {
+
+    // Празен списък - всички заявки отиват към основната база
+    private List<Node> nodes = new ArrayList<>();
+
+    private Selection selection = Selection.ROUND_ROBIN;
+
+    // Реплика, която изостава повече от това, не получава заявки
+    private Duration maxLag = Duration.ofSeconds(5);
+
+    // Изоставане в секунди; празно - не се проверява (напр. H2)
+    private String lagQuery = "SELECT CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+            + "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) END";
+
+    // След промяна клиентът чете от основната база за толкова време (read-your-writes)
+    private Duration stickyWindow = Duration.ofSeconds(5);
+
+    public enum Selection {
+        ROUND_ROBIN,
+        LEAST_CONNECTIONS
+    }
+
+    @Data
+    public static class Node {
+        private String name;
+        private String url;
+        // Празни - същите като spring.datasource.*
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+    }
+}
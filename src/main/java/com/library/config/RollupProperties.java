@@ -0,0 +1,19 @@
+package com.library.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "library.rollups")
+public class RollupProperties {
+
+    // Дни, пресмятани едновременно при backfill; ограничава се до размера на
+    // library.datasource.batch пула минус 1
+    private int backfillParallelism = 1;
+
+    // Най-дълъг период за /api/borrowings/stats и за един backfill
+    private int maxRangeDays = 3660;
+
+    // При затваряне на деня се наваксват пропуснати дни, но не повече от толкова
+    private int maxCatchUpDays = 31;
+}
@@ -0,0 +1,73 @@
+package com.library.config;
+
+import com.library.datasource.ConnectionLimitingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+// Режим с виртуални нишки (spring.threads.virtual.enabled=true).
+// Boot сам пуска Tomcat, @Scheduled и @Async върху виртуални нишки;
+// тук само ограничаваме достъпа до пула от връзки (ConnectionLimitingDataSource).
+@Slf4j
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    // Конкретният тип, за да се вземе предвид getOrder() (виж DatabaseResilienceConfig)
+    @Bean
+    public static ConnectionLimitingPostProcessor connectionLimitingPostProcessor(
+            Environment environment, ObjectProvider<MeterRegistry> meterRegistry) {
+        DatabaseConcurrencyProperties properties = Binder.get(environment)
+                .bindOrCreate("library.db.concurrency", DatabaseConcurrencyProperties.class);
+
+        return new ConnectionLimitingPostProcessor(properties, meterRegistry);
+    }
+
+    // Първи по ред - прекъсвачът (DatabaseResilienceConfig) обвива вече ограничения пул
+    record ConnectionLimitingPostProcessor(DatabaseConcurrencyProperties properties,
+                                           ObjectProvider<MeterRegistry> meterRegistry)
+            implements BeanPostProcessor, Ordered {
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof HikariDataSource hikari)) {
+                return bean;
+            }
+
+            int permits = properties.getPermits() > 0 ? properties.getPermits() : hikari.getMaximumPoolSize();
+            log.info("Limiting concurrent access to data source '{}' to {} virtual threads", beanName, permits);
+
+            ConnectionLimitingDataSource limited =
+                    new ConnectionLimitingDataSource(hikari, permits, properties.getAcquireTimeout());
+            meterRegistry.ifAvailable(registry -> bindMetrics(registry, beanName, limited));
+            return limited;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
+
+    private static void bindMetrics(MeterRegistry registry, String name, ConnectionLimitingDataSource dataSource) {
+        Gauge.builder("library.db.permits.available", dataSource, ConnectionLimitingDataSource::getAvailablePermits)
+                .tag("datasource", name)
+                .register(registry);
+        Gauge.builder("library.db.permits.waiting", dataSource, ConnectionLimitingDataSource::getWaitingThreads)
+                .tag("datasource", name)
+                .register(registry);
+        FunctionCounter.builder("library.db.permits.timeouts", dataSource, ConnectionLimitingDataSource::getTimeouts)
+                .tag("datasource", name)
+                .register(registry);
+    }
+}
@@ -0,0 +1,50 @@
+package com.library.controller;
+
+import com.library.analytics.CirculationAnalytics;
+import com.library.analytics.GroupBy;
+import com.library.config.AnalyticsProperties;
+import com.library.dto.CirculationAggregate;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/analytics")
+@RequiredArgsConstructor
+@Tag(name = "Analytics", description = "In-memory circulation analytics (no queries against the live tables)")
+@CrossOrigin(origins = "*")
+public class AnalyticsController {
+
+    private final CirculationAnalytics circulationAnalytics;
+    private final AnalyticsProperties properties;
+
+    @GetMapping("/circulation")
+    @Operation(summary = "Aggregate loans by a dimension",
+               description = "groupBy=AUTHOR|PUBLISHER|BOOK|PATRON|MONTH|YEAR; from/to filter by borrow date. "
+                       + "Returns loans, open and returned loans, average loan length and late returns per group")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Aggregates, largest groups first"),
+        @ApiResponse(responseCode = "503", description = "Analytics are still loading; retry after the Retry-After delay")
+    })
+    public ResponseEntity<List<CirculationAggregate>> aggregate(
+            @RequestParam GroupBy groupBy,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "50") int limit) {
+        if (limit < 1 || limit > properties.getMaxResults()) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + properties.getMaxResults());
+        }
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        return ResponseEntity.ok(circulationAnalytics.aggregate(groupBy, from, to, limit));
+    }
+}
@@ -1,6 +1,9 @@
 package com.library.controller;
 
+import com.library.dto.BatchResult;
+import com.library.dto.BookAvailability;
 import com.library.dto.BookDTO;
+import com.library.dto.RelatedBook;
 import com.library.dto.request.CreateBookRequest;
 import com.library.dto.request.UpdateBookRequest;
 import com.library.model.BookStatus;
@@ -15,19 +18,24 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/books")
 @RequiredArgsConstructor
 @Tag(name = "Books", description = "Book management endpoints")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = HttpHeaders.ETAG)
 public class BookController {
 
+    private static final int MAX_BATCH_SIZE = 200;
+    private static final int MAX_RELATED = 50;
+
     private final BookService bookService;
 
     @PostMapping
@@ -43,20 +51,42 @@ public class BookController {
     }
 
     @GetMapping
-    @Operation(summary = "Get all books with pagination")
-    public ResponseEntity<Page<BookDTO>> getAllBooks(
+    @Operation(summary = "Get all books with pagination",
+               description = "Optional fields=id,title,status limits both the response and the selected columns")
+    public ResponseEntity<?> getAllBooks(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "id") String sortBy,
-            @RequestParam(defaultValue = "asc") String sortDirection) {
+            @RequestParam(defaultValue = "asc") String sortDirection,
+            @RequestParam(required = false) Set<String> fields) {
         
         Sort sort = sortDirection.equalsIgnoreCase("desc") 
             ? Sort.by(sortBy).descending() 
             : Sort.by(sortBy).ascending();
         
         Pageable pageable = PageRequest.of(page, size, sort);
+        if (fields != null && !fields.isEmpty()) {
+            return ResponseEntity.ok(bookService.getAllBooks(pageable, fields));
+        }
         Page<BookDTO> books = bookService.getAllBooks(pageable);
-        return ResponseEntity.ok(books);
+        return ResponseEntity.ok()
+                .eTag(EntityTags.ofList("books", books.getContent(), books.getTotalElements(), pageable))
+                .body(books);
+    }
+
+    @GetMapping(params = "ids")
+    @Operation(summary = "Get several books by ID in one call",
+               description = "Cache hits are resolved with one multi-get, misses with a single IN query")
+    public ResponseEntity<BatchResult<BookDTO>> getBooksByIds(@RequestParam List<Long> ids) {
+        validateBatchSize(ids);
+        return ResponseEntity.ok(bookService.getBooksByIds(ids));
+    }
+
+    @GetMapping("/availability")
+    @Operation(summary = "Check availability of several books in one call")
+    public ResponseEntity<BatchResult<BookAvailability>> getAvailability(@RequestParam List<Long> ids) {
+        validateBatchSize(ids);
+        return ResponseEntity.ok(bookService.getAvailability(ids));
     }
 
     @GetMapping("/{id}")
@@ -66,8 +96,9 @@ public class BookController {
         @ApiResponse(responseCode = "404", description = "Book not found")
     })
     public ResponseEntity<BookDTO> getBookById(@PathVariable Long id) {
+        // При съвпадащ If-None-Match Spring връща 304 без да сериализира тялото
         BookDTO book = bookService.getBookById(id);
-        return ResponseEntity.ok(book);
+        return ResponseEntity.ok().eTag(EntityTags.of("book", book)).body(book);
     }
 
     @GetMapping("/search/title")
@@ -75,7 +106,7 @@ public class BookController {
     public ResponseEntity<List<BookDTO>> searchBooksByTitle(
             @RequestParam String title) {
         List<BookDTO> books = bookService.searchBooksByTitle(title);
-        return ResponseEntity.ok(books);
+        return ResponseEntity.ok().eTag(EntityTags.ofList("books", books, "title", title)).body(books);
     }
 
     @GetMapping("/search/author")
@@ -83,14 +114,14 @@ public class BookController {
     public ResponseEntity<List<BookDTO>> searchBooksByAuthor(
             @RequestParam String author) {
         List<BookDTO> books = bookService.searchBooksByAuthor(author);
-        return ResponseEntity.ok(books);
+        return ResponseEntity.ok().eTag(EntityTags.ofList("books", books, "author", author)).body(books);
     }
 
     @GetMapping("/available")
     @Operation(summary = "Get all available books")
     public ResponseEntity<List<BookDTO>> getAvailableBooks() {
         List<BookDTO> books = bookService.getAvailableBooks();
-        return ResponseEntity.ok(books);
+        return ResponseEntity.ok().eTag(EntityTags.ofList("books", books, "available")).body(books);
     }
 
     @GetMapping("/isbn/{isbn}")
@@ -98,7 +129,7 @@ public class BookController {
     public ResponseEntity<BookDTO> getBookByIsbn(@PathVariable String isbn) {
         // Трябва да добавиш този метод в BookService
         BookDTO book = bookService.getBookByIsbn(isbn);
-        return ResponseEntity.ok(book);
+        return ResponseEntity.ok().eTag(EntityTags.of("book", book)).body(book);
     }
 
     @PutMapping("/{id}")
@@ -144,6 +175,17 @@ public class BookController {
         return ResponseEntity.ok(history);
     }
 
+    @GetMapping("/{id}/related")
+    @Operation(summary = "Books most often borrowed by patrons who also borrowed this one")
+    public ResponseEntity<List<RelatedBook>> getRelatedBooks(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "10") int limit) {
+        if (limit < 1 || limit > MAX_RELATED) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_RELATED);
+        }
+        return ResponseEntity.ok(bookService.getRelatedBooks(id, limit));
+    }
+
     @GetMapping("/most-borrowed")
     @Operation(summary = "Get most borrowed books")
     public ResponseEntity<List<?>> getMostBorrowedBooks(
@@ -151,4 +193,10 @@ public class BookController {
         var books = bookService.getMostBorrowedBooks(limit);
         return ResponseEntity.ok(books);
     }
+
+    private static void validateBatchSize(List<Long> ids) {
+        if (ids.isEmpty() || ids.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Between 1 and " + MAX_BATCH_SIZE + " ids are allowed per request");
+        }
+    }
 }
@@ -1,14 +1,21 @@
 package com.library.controller;
 
 import com.library.dto.BorrowingRecordDTO;
+import com.library.dto.CirculationStats;
+import com.library.dto.StatsGranularity;
 import com.library.service.BorrowingService;
+import com.library.service.CirculationRollupService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/borrowings")
@@ -18,6 +25,7 @@ import java.util.List;
 public class BorrowingController {
 
     private final BorrowingService borrowingService;
+    private final CirculationRollupService circulationRollupService;
 
     @PostMapping("/borrow/{bookId}/patron/{patronId}")
     @Operation(summary = "Borrow a book")
@@ -39,16 +47,24 @@ public class BorrowingController {
 
     @GetMapping("/patron/{patronId}/active")
     @Operation(summary = "Get active borrowings for a patron")
-    public ResponseEntity<List<BorrowingRecordDTO>> getActiveBorrowingsForPatron(
-            @PathVariable Long patronId) {
+    public ResponseEntity<?> getActiveBorrowingsForPatron(
+            @PathVariable Long patronId,
+            @RequestParam(required = false) Set<String> fields) {
+        if (fields != null && !fields.isEmpty()) {
+            return ResponseEntity.ok(borrowingService.getActiveBorrowingsForPatron(patronId, fields));
+        }
         List<BorrowingRecordDTO> records = borrowingService.getActiveBorrowingsForPatron(patronId);
         return ResponseEntity.ok(records);
     }
 
     @GetMapping("/patron/{patronId}/history")
     @Operation(summary = "Get borrowing history for a patron")
-    public ResponseEntity<List<BorrowingRecordDTO>> getBorrowingHistoryForPatron(
-            @PathVariable Long patronId) {
+    public ResponseEntity<?> getBorrowingHistoryForPatron(
+            @PathVariable Long patronId,
+            @RequestParam(required = false) Set<String> fields) {
+        if (fields != null && !fields.isEmpty()) {
+            return ResponseEntity.ok(borrowingService.getBorrowingHistoryForPatron(patronId, fields));
+        }
         List<BorrowingRecordDTO> records = borrowingService.getBorrowingHistoryForPatron(patronId);
         return ResponseEntity.ok(records);
     }
@@ -72,7 +88,11 @@ public class BorrowingController {
 
     @GetMapping("/overdue")
     @Operation(summary = "Get all overdue borrowings")
-    public ResponseEntity<List<BorrowingRecordDTO>> getOverdueBorrowings() {
+    public ResponseEntity<?> getOverdueBorrowings(
+            @RequestParam(required = false) Set<String> fields) {
+        if (fields != null && !fields.isEmpty()) {
+            return ResponseEntity.ok(borrowingService.getOverdueBorrowings(fields));
+        }
         List<BorrowingRecordDTO> records = borrowingService.getOverdueBorrowings();
         return ResponseEntity.ok(records);
     }
@@ -94,4 +114,23 @@ public class BorrowingController {
         var stats = borrowingService.getDailyBorrowingStats();
         return ResponseEntity.ok(stats);
     }
-}
\ No newline at end of file
+
+    // Чете само дневните обобщения (daily_circulation_rollups)
+    @GetMapping("/stats")
+    @Operation(summary = "Get circulation statistics for a date range")
+    public ResponseEntity<List<CirculationStats>> getStats(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "day") String granularity) {
+        return ResponseEntity.ok(circulationRollupService.getStats(from, to, StatsGranularity.of(granularity)));
+    }
+
+    @PostMapping("/stats/backfill")
+    @Operation(summary = "Recompute daily circulation rollups for past dates")
+    public ResponseEntity<Map<String, Object>> backfillStats(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        int days = circulationRollupService.backfill(from, to);
+        return ResponseEntity.accepted().body(Map.of("from", from, "to", to, "days", days));
+    }
+}
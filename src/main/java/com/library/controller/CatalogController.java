@@ -0,0 +1,93 @@
+package com.library.controller;
+
+import com.library.dto.CatalogEntryDTO;
+import com.library.service.CatalogRebuilder;
+import com.library.service.CatalogService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/catalog")
+@RequiredArgsConstructor
+@Tag(name = "Catalog", description = "Catalog served from the catalog_view read model")
+@CrossOrigin(origins = "*")
+public class CatalogController {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final CatalogService catalogService;
+    private final CatalogRebuilder catalogRebuilder;
+
+    @GetMapping
+    @Operation(summary = "Browse the catalog",
+               description = "Books with availability, current due date and borrow count, ordered by title")
+    public ResponseEntity<Page<CatalogEntryDTO>> getCatalog(
+            @RequestParam(required = false) Boolean available,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(catalogService.getCatalog(available, byTitle(page, size)));
+    }
+
+    @GetMapping("/{bookId}")
+    @Operation(summary = "Get the catalog entry of a book")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Entry found"),
+        @ApiResponse(responseCode = "404", description = "Book not found")
+    })
+    public ResponseEntity<CatalogEntryDTO> getEntry(@PathVariable Long bookId) {
+        return ResponseEntity.ok(catalogService.getEntry(bookId));
+    }
+
+    @GetMapping("/search/title")
+    @Operation(summary = "Search the catalog by title prefix")
+    public ResponseEntity<Page<CatalogEntryDTO>> searchByTitle(
+            @RequestParam String title,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(catalogService.searchByTitle(title, byTitle(page, size)));
+    }
+
+    @GetMapping("/search/author")
+    @Operation(summary = "Search the catalog by author prefix")
+    public ResponseEntity<Page<CatalogEntryDTO>> searchByAuthor(
+            @RequestParam String author,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(catalogService.searchByAuthor(author, byTitle(page, size)));
+    }
+
+    @GetMapping("/overdue")
+    @Operation(summary = "Books whose current loan is past its due date")
+    public ResponseEntity<List<CatalogEntryDTO>> getOverdue() {
+        return ResponseEntity.ok(catalogService.getOverdue());
+    }
+
+    @PostMapping("/rebuild")
+    @Operation(summary = "Rebuild the catalog_view read model from the books table")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Catalog rebuilt"),
+        @ApiResponse(responseCode = "409", description = "A rebuild is already running")
+    })
+    public ResponseEntity<Map<String, Object>> rebuild() {
+        return ResponseEntity.ok(Map.of("books", catalogRebuilder.rebuild()));
+    }
+
+    private static Pageable byTitle(int page, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return PageRequest.of(page, size, Sort.by("title").ascending());
+    }
+}
@@ -0,0 +1,29 @@
+package com.library.controller;
+
+import com.library.dto.Versioned;
+
+import java.util.Collection;
+
+// Strong ETag-ове от id + @Version. За списъци - хеш от двойките (id, version),
+// така че всяка промяна, добавяне или изтриване на елемент сменя ETag-а.
+final class EntityTags {
+
+    private EntityTags() {
+    }
+
+    static String of(String type, Versioned dto) {
+        return type + "-" + dto.getId() + "-v" + dto.getVersion();
+    }
+
+    static String ofList(String type, Collection<? extends Versioned> items, Object... qualifiers) {
+        long hash = 1125899906842597L;
+        for (Object qualifier : qualifiers) {
+            hash = 31 * hash + String.valueOf(qualifier).hashCode();
+        }
+        for (Versioned item : items) {
+            hash = 31 * hash + (item.getId() == null ? 0 : item.getId());
+            hash = 31 * hash + (item.getVersion() == null ? 0 : item.getVersion());
+        }
+        return type + "-list-" + items.size() + "-" + Long.toHexString(hash);
+    }
+}
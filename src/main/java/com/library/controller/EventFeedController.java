@@ -0,0 +1,44 @@
+package com.library.controller;
+
+import com.library.config.EventFeedProperties;
+import com.library.dto.EventBatch;
+import com.library.service.CirculationEventFeed;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/events")
+@RequiredArgsConstructor
+@Tag(name = "Events", description = "Ordered feed of circulation events for downstream consumers")
+@CrossOrigin(origins = "*")
+public class EventFeedController {
+
+    private final CirculationEventFeed circulationEventFeed;
+    private final EventFeedProperties properties;
+
+    @GetMapping
+    @Operation(summary = "Read circulation events after a cursor",
+               description = "Pass the returned nextCursor as after= once the batch is processed; "
+                       + "re-reading from the last processed cursor gives at-least-once delivery")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Events after the cursor"),
+        @ApiResponse(responseCode = "410", description = "Events after the cursor have been purged; "
+                + "the consumer must resynchronise from a full copy")
+    })
+    public ResponseEntity<EventBatch> readEvents(
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(defaultValue = "100") int limit) {
+        if (after < 0) {
+            throw new IllegalArgumentException("Cursor must not be negative");
+        }
+        if (limit < 1 || limit > properties.getMaxPageSize()) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + properties.getMaxPageSize());
+        }
+        return ResponseEntity.ok(circulationEventFeed.readAfter(after, limit));
+    }
+}
@@ -1,7 +1,10 @@
 package com.library.controller;
 
+import com.library.dto.ExportFormat;
+import com.library.dto.KeysetPage;
 import com.library.dto.PatronDTO;
 import com.library.dto.PatronStatistics;
+import com.library.dto.PatronSuggestion;
 import com.library.dto.request.CreatePatronRequest;
 import com.library.dto.request.UpdatePatronRequest;
 import com.library.model.MembershipStatus;
@@ -10,17 +13,21 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/patrons")
 @RequiredArgsConstructor
 @Tag(name = "Patrons", description = "Patron management endpoints")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = HttpHeaders.ETAG)
 public class PatronController {
 
     private final PatronService patronService;
@@ -33,17 +40,42 @@ public class PatronController {
     }
 
     @GetMapping
-    @Operation(summary = "Get all patrons")
-    public ResponseEntity<List<PatronDTO>> getAllPatrons() {
-        List<PatronDTO> patrons = patronService.getAllPatrons();
-        return ResponseEntity.ok(patrons);
+    @Operation(summary = "Get patrons page (keyset pagination by id)",
+               description = "Optional fields=id,firstName,email limits both the response and the selected columns")
+    public ResponseEntity<?> getAllPatrons(
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) Set<String> fields) {
+        int boundedSize = Math.max(1, Math.min(size, 500));
+        if (fields != null && !fields.isEmpty()) {
+            return ResponseEntity.ok(patronService.getPatronsPage(afterId, boundedSize, fields));
+        }
+        KeysetPage<PatronDTO> patrons = patronService.getPatronsPage(afterId, boundedSize);
+        // hasNext/nextCursor влизат в хеша - нов читател след пълна последна страница сменя ETag-а
+        return ResponseEntity.ok()
+                .eTag(EntityTags.ofList("patrons", patrons.getContent(), afterId, boundedSize,
+                        patrons.isHasNext(), patrons.getNextCursor()))
+                .body(patrons);
+    }
+
+    @GetMapping("/export")
+    @Operation(summary = "Stream all patrons as CSV or NDJSON")
+    public ResponseEntity<StreamingResponseBody> exportPatrons(
+            @RequestParam(defaultValue = "CSV") ExportFormat format) {
+        StreamingResponseBody body = outputStream -> patronService.exportPatrons(format, outputStream);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getMediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"patrons." + format.getFileExtension() + "\"")
+                .body(body);
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Get patron by ID")
     public ResponseEntity<PatronDTO> getPatronById(@PathVariable Long id) {
+        // При съвпадащ If-None-Match Spring връща 304 без да сериализира тялото
         PatronDTO patron = patronService.getPatronById(id);
-        return ResponseEntity.ok(patron);
+        return ResponseEntity.ok().eTag(EntityTags.of("patron", patron)).body(patron);
     }
 
     @GetMapping("/search")
@@ -51,7 +83,17 @@ public class PatronController {
     public ResponseEntity<List<PatronDTO>> searchPatrons(
             @RequestParam String term) {
         List<PatronDTO> patrons = patronService.searchPatrons(term);
-        return ResponseEntity.ok(patrons);
+        return ResponseEntity.ok().eTag(EntityTags.ofList("patrons", patrons, term)).body(patrons);
+    }
+
+    @GetMapping("/suggest")
+    @Operation(summary = "Autocomplete patrons by name or email prefix")
+    public ResponseEntity<List<PatronSuggestion>> suggestPatrons(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+        int boundedLimit = Math.max(1, Math.min(limit, 50));
+        List<PatronSuggestion> suggestions = patronService.suggestPatrons(prefix, boundedLimit);
+        return ResponseEntity.ok(suggestions);
     }
 
     @GetMapping("/overdue")
@@ -98,7 +140,7 @@ public class PatronController {
     public ResponseEntity<PatronDTO> getPatronByEmail(@PathVariable String email) {
         // Трябва да добавиш този метод в PatronService
         PatronDTO patron = patronService.getPatronByEmail(email);
-        return ResponseEntity.ok(patron);
+        return ResponseEntity.ok().eTag(EntityTags.of("patron", patron)).body(patron);
     }
 
     @GetMapping("/active/count")
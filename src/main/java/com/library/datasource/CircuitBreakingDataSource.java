@@ -0,0 +1,54 @@
+package com.library.datasource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+// При отворен прекъсвач отказва връзката веднага, вместо нишката да чака connection-timeout
+public class CircuitBreakingDataSource extends DelegatingDataSource {
+
+    private final DatabaseCircuitBreaker breaker;
+
+    public CircuitBreakingDataSource(DataSource target, DatabaseCircuitBreaker breaker) {
+        super(target);
+        this.breaker = breaker;
+        breaker.register(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        rejectIfOpen();
+        try {
+            Connection connection = super.getConnection();
+            breaker.onSuccess();
+            return connection;
+        } catch (SQLException ex) {
+            breaker.onFailure(ex);
+            throw ex;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        rejectIfOpen();
+        try {
+            Connection connection = super.getConnection(username, password);
+            breaker.onSuccess();
+            return connection;
+        } catch (SQLException ex) {
+            breaker.onFailure(ex);
+            throw ex;
+        }
+    }
+
+    private void rejectIfOpen() throws SQLException {
+        if (breaker.isOpen()) {
+            breaker.onRejected();
+            // 08000 - Hibernate/Spring го превеждат до грешка при свързване (DataAccessResourceFailureException)
+            throw new SQLTransientConnectionException("Database circuit breaker is open", "08000");
+        }
+    }
+}
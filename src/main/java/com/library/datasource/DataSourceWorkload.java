@@ -0,0 +1,17 @@
+package com.library.datasource;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Изпраща метода (или всички методи на класа) към отделен пул от връзки.
+// @Scheduled методите автоматично отиват в BATCH.
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface DataSourceWorkload {
+
+    Workload value();
+}
@@ -0,0 +1,157 @@
+package com.library.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.net.ConnectException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Прекъсвач пред базата: след няколко поредни грешки при свързване се отваря и всички
+// нови връзки се отказват веднага. Затваря се само от пробата (DatabaseHealthProbe).
+@Slf4j
+public class DatabaseCircuitBreaker {
+
+    private final int failureThreshold;
+    private final Duration probeTimeout;
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicLong rejected = new AtomicLong();
+    private final List<DataSource> targets = new CopyOnWriteArrayList<>();
+
+    // null - прекъсвачът е затворен
+    private volatile Instant openedAt;
+
+    public DatabaseCircuitBreaker(int failureThreshold, Duration probeTimeout) {
+        this.failureThreshold = failureThreshold;
+        this.probeTimeout = probeTimeout;
+    }
+
+    public boolean isOpen() {
+        return openedAt != null;
+    }
+
+    public Instant getOpenedAt() {
+        return openedAt;
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    void register(DataSource target) {
+        targets.add(target);
+    }
+
+    void onSuccess() {
+        consecutiveFailures.set(0);
+    }
+
+    void onRejected() {
+        rejected.incrementAndGet();
+    }
+
+    void onFailure(SQLException ex) {
+        // Изчерпан пул или изтекъл семафор не означава, че базата е паднала
+        if (!isConnectionFailure(ex)) {
+            return;
+        }
+        if (consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            trip(ex);
+        }
+    }
+
+    // Проверява всички бази директно, без прекъсвача; при успех го затваря
+    public boolean probe() {
+        if (!isOpen()) {
+            return true;
+        }
+        for (DataSource target : targets) {
+            try (Connection connection = openProbeConnection(target)) {
+                if (!connection.isValid(probeTimeoutSeconds())) {
+                    return false;
+                }
+            } catch (SQLException ex) {
+                log.debug("Database probe failed: {}", ex.getMessage());
+                return false;
+            }
+        }
+        close();
+        return true;
+    }
+
+    // Отделна връзка през драйвера, а не от пула: getConnection() на пула чака
+    // connection-timeout (10-60 s), а пробата трябва да приключи за probe-timeout
+    private Connection openProbeConnection(DataSource target) throws SQLException {
+        HikariDataSource pool = target.isWrapperFor(HikariDataSource.class)
+                ? target.unwrap(HikariDataSource.class) : null;
+        if (pool == null || pool.getJdbcUrl() == null) {
+            return target.getConnection();
+        }
+        String url = pool.getJdbcUrl();
+
+        Properties info = new Properties();
+        if (pool.getUsername() != null) {
+            info.setProperty("user", pool.getUsername());
+        }
+        if (pool.getPassword() != null) {
+            info.setProperty("password", pool.getPassword());
+        }
+        if (url.startsWith("jdbc:postgresql:")) {
+            String seconds = String.valueOf(probeTimeoutSeconds());
+            info.setProperty("connectTimeout", seconds);
+            info.setProperty("loginTimeout", seconds);
+            info.setProperty("socketTimeout", seconds);
+        }
+
+        Connection connection = DriverManager.getDriver(url).connect(url, info);
+        if (connection == null) {
+            throw new SQLException("No JDBC driver accepts " + url, "08001");
+        }
+        return connection;
+    }
+
+    private int probeTimeoutSeconds() {
+        return (int) Math.max(1, probeTimeout.toSeconds());
+    }
+
+    private synchronized void trip(SQLException cause) {
+        if (openedAt == null) {
+            openedAt = Instant.now();
+            log.warn("Database circuit breaker opened after {} consecutive connection failures: {}",
+                    failureThreshold, cause.getMessage());
+        }
+    }
+
+    private synchronized void close() {
+        if (openedAt != null) {
+            log.info("Database circuit breaker closed after {} s",
+                    Duration.between(openedAt, Instant.now()).toSeconds());
+            openedAt = null;
+            consecutiveFailures.set(0);
+        }
+    }
+
+    private static boolean isConnectionFailure(Throwable ex) {
+        for (Throwable current = ex; current != null; current = current.getCause()) {
+            if (current instanceof ConnectException) {
+                return true;
+            }
+            // SQLState клас 08 - connection exception
+            if (current instanceof SQLException sqlException
+                    && sqlException.getSQLState() != null
+                    && sqlException.getSQLState().startsWith("08")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
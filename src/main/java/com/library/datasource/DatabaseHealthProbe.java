@@ -0,0 +1,34 @@
+package com.library.datasource;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Периодично проверява базата, докато прекъсвачът е отворен, и го затваря при успех
+@Component
+@ConditionalOnProperty(name = "library.db.circuit-breaker.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+public class DatabaseHealthProbe {
+
+    private final DatabaseCircuitBreaker breaker;
+    private final MeterRegistry meterRegistry;
+
+    @PostConstruct
+    void bindMetrics() {
+        Gauge.builder("library.db.circuit.open", breaker, b -> b.isOpen() ? 1 : 0).register(meterRegistry);
+        FunctionCounter.builder("library.db.circuit.rejected", breaker, DatabaseCircuitBreaker::getRejected)
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${library.db.circuit-breaker.probe-interval-ms:5000}")
+    public void probe() {
+        if (breaker.isOpen()) {
+            breaker.probe();
+        }
+    }
+}
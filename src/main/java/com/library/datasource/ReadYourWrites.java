@@ -0,0 +1,41 @@
+package com.library.datasource;
+
+import java.util.function.Supplier;
+
+// Маркер, че текущата заявка трябва да чете от основната база - клиентът току-що е променил данни
+public final class ReadYourWrites {
+
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    private ReadYourWrites() {
+    }
+
+    public static boolean isPinned() {
+        return Boolean.TRUE.equals(PINNED.get());
+    }
+
+    public static void pin(boolean pinned) {
+        PINNED.set(pinned);
+    }
+
+    public static void clear() {
+        PINNED.remove();
+    }
+
+    // Изпълнява зареждането само от основната база и възстановява предишното състояние.
+    // За стойности, които отиват в кеш: прочетени от изоставаща реплика, те биха останали
+    // остарели до изтичането на TTL, защото обезсилването вече е минало.
+    public static <T> T onPrimary(Supplier<T> loader) {
+        Boolean previous = PINNED.get();
+        PINNED.set(Boolean.TRUE);
+        try {
+            return loader.get();
+        } finally {
+            if (previous == null) {
+                PINNED.remove();
+            } else {
+                PINNED.set(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.library.datasource;
+
+import com.library.config.ReplicaProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Пулове към репликите за четене. Реплика получава заявки само ако последната проверка
+// е минала и изоставането ѝ е под max-lag; иначе четенето отива към основната база.
+@Slf4j
+public class ReplicaPool implements AutoCloseable {
+
+    private final ReplicaProperties properties;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final AtomicInteger next = new AtomicInteger();
+    private final Counter fallbacks;
+
+    public ReplicaPool(ReplicaProperties properties, Environment environment, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.fallbacks = meterRegistry.counter("library.db.replica.fallbacks");
+
+        for (int i = 0; i < properties.getNodes().size(); i++) {
+            ReplicaProperties.Node node = properties.getNodes().get(i);
+            String name = node.getName() != null ? node.getName() : "replica-" + (i + 1);
+
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setPoolName(name);
+            dataSource.setJdbcUrl(node.getUrl());
+            dataSource.setUsername(node.getUsername() != null
+                    ? node.getUsername() : environment.getProperty("spring.datasource.username"));
+            dataSource.setPassword(node.getPassword() != null
+                    ? node.getPassword() : environment.getProperty("spring.datasource.password"));
+            dataSource.setMaximumPoolSize(node.getMaximumPoolSize());
+            dataSource.setReadOnly(true);
+            dataSource.setMetricRegistry(meterRegistry);
+
+            Replica replica = new Replica(name, dataSource);
+            replicas.add(replica);
+
+            Gauge.builder("library.db.replica.lag", replica, r -> r.lagSeconds)
+                    .tag("replica", name)
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+            Gauge.builder("library.db.replica.healthy", replica, r -> r.healthy ? 1 : 0)
+                    .tag("replica", name)
+                    .register(meterRegistry);
+        }
+    }
+
+    // null - няма здрава реплика
+    public DataSource select() {
+        List<Replica> healthy = replicas.stream().filter(replica -> replica.healthy).toList();
+        if (healthy.isEmpty()) {
+            fallbacks.increment();
+            return null;
+        }
+
+        Replica selected = switch (properties.getSelection()) {
+            case ROUND_ROBIN -> healthy.get(Math.floorMod(next.getAndIncrement(), healthy.size()));
+            case LEAST_CONNECTIONS -> healthy.stream()
+                    .min(Comparator.comparingInt(Replica::activeConnections))
+                    .orElseThrow();
+        };
+        return selected.dataSource;
+    }
+
+    // Грешка при вземане на връзка - репликата се изключва до следващата успешна проверка
+    public void markUnhealthy(DataSource dataSource, SQLException ex) {
+        fallbacks.increment();
+        for (Replica replica : replicas) {
+            if (replica.dataSource == dataSource && replica.healthy) {
+                replica.healthy = false;
+                log.warn("Replica {} marked unhealthy: {}", replica.name, ex.getMessage());
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${library.datasource.replica.health-check-interval-ms:5000}")
+    public void checkHealth() {
+        for (Replica replica : replicas) {
+            boolean wasHealthy = replica.healthy;
+            try (Connection connection = replica.dataSource.getConnection()) {
+                replica.lagSeconds = measureLag(connection);
+                replica.healthy = replica.lagSeconds <= properties.getMaxLag().toSeconds();
+            } catch (SQLException ex) {
+                log.debug("Replica {} health check failed: {}", replica.name, ex.getMessage());
+                replica.healthy = false;
+            }
+
+            if (wasHealthy != replica.healthy) {
+                log.info("Replica {} is now {} (lag {} s)",
+                        replica.name, replica.healthy ? "healthy" : "unhealthy", replica.lagSeconds);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(replica -> replica.dataSource.close());
+    }
+
+    private double measureLag(Connection connection) throws SQLException {
+        String lagQuery = properties.getLagQuery();
+        if (lagQuery == null || lagQuery.isBlank()) {
+            return connection.isValid(2) ? 0 : Double.MAX_VALUE;
+        }
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(lagQuery)) {
+            return resultSet.next() ? resultSet.getDouble(1) : 0;
+        }
+    }
+
+    private static final class Replica {
+
+        private final String name;
+        private final HikariDataSource dataSource;
+        // Без трафик до първата успешна проверка
+        private volatile boolean healthy;
+        private volatile double lagSeconds;
+
+        private Replica(String name, HikariDataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        private int activeConnections() {
+            HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+            return pool != null ? pool.getActiveConnections() : 0;
+        }
+    }
+}
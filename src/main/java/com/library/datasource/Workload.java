@@ -0,0 +1,11 @@
+package com.library.datasource;
+
+// Вид натоварване - определя от кой пул от връзки се обслужва заявката
+public enum Workload {
+    // Заемане/връщане и всички обикновени заявки
+    OLTP,
+    // Справки, статистики и експорти
+    REPORTING,
+    // @Scheduled задачи и фонова обработка
+    BATCH
+}
@@ -0,0 +1,66 @@
+package com.library.datasource;
+
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+// Избира пула според WorkloadContext. Обвива се в LazyConnectionDataSourceProxy,
+// за да се вземе физическа връзка едва при първата заявка, когато натоварването вече е известно.
+// Транзакциите с readOnly = true отиват към реплика, ако има здрава.
+public class WorkloadRoutingDataSource extends AbstractRoutingDataSource {
+
+    // null - без реплики
+    private final ReplicaPool replicaPool;
+
+    public WorkloadRoutingDataSource(ReplicaPool replicaPool) {
+        this.replicaPool = replicaPool;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return WorkloadContext.current();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        DataSource replica = selectReplica();
+        if (replica != null) {
+            try {
+                Connection connection = replica.getConnection();
+                disableSecondLevelCachePuts();
+                return connection;
+            } catch (SQLException ex) {
+                // Репликата е недостъпна - четем от основната база
+                replicaPool.markUnhealthy(replica, ex);
+            }
+        }
+        return super.getConnection();
+    }
+
+    // Entity-тата от репликата може да изостават; ако влязат в second-level кеша, след
+    // обезсилване остарялото състояние би се връщало до изтичането на региона.
+    // Сесията продължава да чете от кеша, но го пълнят само четенията от основната база.
+    private static void disableSecondLevelCachePuts() {
+        for (Object resource : TransactionSynchronizationManager.getResourceMap().values()) {
+            if (resource instanceof EntityManagerHolder holder) {
+                holder.getEntityManager().unwrap(Session.class).setCacheMode(CacheMode.GET);
+            }
+        }
+    }
+
+    private DataSource selectReplica() {
+        if (replicaPool == null
+                || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                || WorkloadContext.current() == Workload.BATCH
+                || ReadYourWrites.isPinned()) {
+            return null;
+        }
+        return replicaPool.select();
+    }
+}
@@ -0,0 +1,50 @@
+package com.library.datasource;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.annotation.Schedules;
+
+import java.lang.reflect.Method;
+
+// Задава натоварването за времето на извикването. Изпълнява се преди @Transactional,
+// така че и новата транзакция взема връзка от правилния пул.
+public class WorkloadRoutingInterceptor implements MethodInterceptor {
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Workload workload = workloadOf(invocation);
+        if (workload == null) {
+            return invocation.proceed();
+        }
+
+        Workload previous = WorkloadContext.set(workload);
+        try {
+            return invocation.proceed();
+        } finally {
+            WorkloadContext.restore(previous);
+        }
+    }
+
+    private static Workload workloadOf(MethodInvocation invocation) {
+        Class<?> targetClass = invocation.getThis() != null
+                ? AopUtils.getTargetClass(invocation.getThis())
+                : invocation.getMethod().getDeclaringClass();
+        Method method = AopUtils.getMostSpecificMethod(invocation.getMethod(), targetClass);
+
+        DataSourceWorkload annotation = AnnotatedElementUtils.findMergedAnnotation(method, DataSourceWorkload.class);
+        if (annotation == null) {
+            annotation = AnnotatedElementUtils.findMergedAnnotation(targetClass, DataSourceWorkload.class);
+        }
+        if (annotation != null) {
+            return annotation.value();
+        }
+        if (AnnotatedElementUtils.hasAnnotation(method, Scheduled.class)
+                || AnnotatedElementUtils.hasAnnotation(method, Schedules.class)) {
+            return Workload.BATCH;
+        }
+        return null;
+    }
+}
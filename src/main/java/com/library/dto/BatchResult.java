@@ -0,0 +1,18 @@
+package com.library.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchResult<T> {
+    // В реда на поисканите id-та
+    private List<T> items;
+    private List<Long> missingIds;
+}
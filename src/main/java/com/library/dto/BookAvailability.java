@@ -0,0 +1,17 @@
+package com.library.dto;
+
+import com.library.model.BookStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookAvailability {
+    private Long bookId;
+    private BookStatus status;
+    private boolean available;
+}
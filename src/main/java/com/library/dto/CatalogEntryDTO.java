@@ -0,0 +1,27 @@
+package com.library.dto;
+
+import com.library.model.BookStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogEntryDTO {
+    private Long bookId;
+    private String isbn;
+    private String title;
+    private String author;
+    private String publisher;
+    private Integer publicationYear;
+    private BookStatus status;
+    private boolean available;
+    private Long currentPatronId;
+    private LocalDate currentDueDate;
+    private long borrowCount;
+}
@@ -0,0 +1,20 @@
+package com.library.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CirculationAggregate {
+    private String key;
+    private long loans;
+    private long openLoans;
+    private long returnedLoans;
+    // Само за върнатите; null ако няма такива
+    private Double averageLoanDays;
+    private long lateReturns;
+}
@@ -0,0 +1,28 @@
+package com.library.dto;
+
+import com.library.model.BookStatus;
+import com.library.model.CirculationEventType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CirculationEventDTO {
+    private long position;
+    private CirculationEventType type;
+    private Long bookId;
+    private Long patronId;
+    private Long borrowingRecordId;
+    private LocalDate dueDate;
+    private BookStatus bookStatus;
+    private BookStatus previousStatus;
+    private Double lateFee;
+    private LocalDateTime occurredAt;
+}
@@ -0,0 +1,27 @@
+package com.library.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CirculationStats {
+    // Периодът, отрязан до поисканите from/to
+    private LocalDate periodStart;
+    private LocalDate periodEnd;
+    // Дни с обобщение в периода (по-малко от дължината му, ако липсват)
+    private int days;
+    private long borrowed;
+    private long returned;
+    private long newOverdue;
+    private double lateFees;
+    // Отворени заемания в края на последния ден с обобщение и най-много за периода
+    private long activeLoans;
+    private long peakActiveLoans;
+}
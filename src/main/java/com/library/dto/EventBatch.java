@@ -0,0 +1,19 @@
+package com.library.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// nextCursor се подава като after= в следващата заявка - след като събитията са обработени
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventBatch {
+    private List<CirculationEventDTO> events;
+    private long nextCursor;
+    private boolean hasMore;
+}
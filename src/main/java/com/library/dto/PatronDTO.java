@@ -13,7 +13,7 @@ import java.time.LocalDateTime;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class PatronDTO {
+public class PatronDTO implements Versioned {
     private Long id;
     private String firstName;
     private String lastName;
@@ -26,4 +26,5 @@ public class PatronDTO {
     private Integer totalBooksBorrowed;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private Long version;
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.library.dto;
+
+import com.library.model.MembershipStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatronSuggestion {
+    private Long id;
+    private String firstName;
+    private String lastName;
+    private String fullName;
+    private String email;
+    private MembershipStatus status;
+}
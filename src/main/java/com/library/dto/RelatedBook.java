@@ -0,0 +1,16 @@
+package com.library.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RelatedBook {
+    private Long bookId;
+    // Брой читатели, заели и двете книги; всяко съвпадение тежи decay-factor^(възраст в дни)
+    private double coBorrowCount;
+}
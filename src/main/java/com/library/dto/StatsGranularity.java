@@ -0,0 +1,38 @@
+package com.library.dto;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Locale;
+
+public enum StatsGranularity {
+    DAY,
+    WEEK,
+    MONTH;
+
+    // day|week|month, без значение от регистъра
+    public static StatsGranularity of(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Granularity must be one of day, week, month");
+        }
+    }
+
+    // Първият ден на периода, в който попада денят (седмиците започват в понеделник)
+    public LocalDate periodStart(LocalDate day) {
+        return switch (this) {
+            case DAY -> day;
+            case WEEK -> day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> day.withDayOfMonth(1);
+        };
+    }
+
+    public LocalDate periodEnd(LocalDate periodStart) {
+        return switch (this) {
+            case DAY -> periodStart;
+            case WEEK -> periodStart.plusDays(6);
+            case MONTH -> periodStart.with(TemporalAdjusters.lastDayOfMonth());
+        };
+    }
+}
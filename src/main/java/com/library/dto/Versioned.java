@@ -0,0 +1,8 @@
+package com.library.dto;
+
+// DTO, което носи id и @Version на entity-то, от което е построено
+public interface Versioned {
+    Long getId();
+
+    Long getVersion();
+}
@@ -0,0 +1,18 @@
+package com.library.events;
+
+import com.library.dto.CirculationEventDTO;
+
+import java.util.List;
+
+// Локален консуматор на feed-а (за тестове и разработка), задвижван от LocalEventFeedPoller.
+// Позицията се записва с commit() едва след успешен accept() - при срив между двете
+// събитията идват отново, затова accept() трябва да понася повторения.
+public interface CirculationEventConsumer {
+
+    // Последната обработена позиция (0 - от началото)
+    long lastPosition();
+
+    void accept(List<CirculationEventDTO> events) throws Exception;
+
+    void commit(long position) throws Exception;
+}
@@ -0,0 +1,62 @@
+package com.library.events;
+
+import com.library.dto.CirculationEventDTO;
+import lombok.extern.slf4j.Slf4j;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.SerializationFeature;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+// Добавя събитията като NDJSON във файл; курсорът е в <file>.cursor,
+// така че след рестарт четенето продължава оттам, докъдето е стигнало.
+@Slf4j
+public class FileEventConsumer implements CirculationEventConsumer {
+
+    private final Path file;
+    private final Path cursorFile;
+    private final ObjectWriter writer;
+    private long position;
+
+    public FileEventConsumer(Path file, JsonMapper jsonMapper) throws IOException {
+        this.file = file.toAbsolutePath();
+        this.cursorFile = this.file.resolveSibling(this.file.getFileName() + ".cursor");
+        this.writer = jsonMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+        this.position = Files.exists(cursorFile)
+                ? Long.parseLong(Files.readString(cursorFile, StandardCharsets.UTF_8).trim())
+                : 0L;
+        log.info("File event consumer writing to {} from position {}", this.file, position);
+    }
+
+    @Override
+    public long lastPosition() {
+        return position;
+    }
+
+    @Override
+    public void accept(List<CirculationEventDTO> events) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (CirculationEventDTO event : events) {
+                out.write(writer.writeValueAsString(event));
+                out.write('\n');
+            }
+        }
+    }
+
+    // Записва се във временен файл и се подменя атомарно - никога наполовина записан курсор
+    @Override
+    public void commit(long position) throws IOException {
+        Path tmp = cursorFile.resolveSibling(cursorFile.getFileName() + ".tmp");
+        Files.writeString(tmp, Long.toString(position), StandardCharsets.UTF_8);
+        Files.move(tmp, cursorFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        this.position = position;
+    }
+}
@@ -0,0 +1,37 @@
+package com.library.events;
+
+import com.library.dto.CirculationEventDTO;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Пази получените събития в паметта - за интеграционни тестове
+public class InMemoryEventConsumer implements CirculationEventConsumer {
+
+    private final List<CirculationEventDTO> events = new CopyOnWriteArrayList<>();
+    private final AtomicLong position = new AtomicLong();
+
+    @Override
+    public long lastPosition() {
+        return position.get();
+    }
+
+    @Override
+    public void accept(List<CirculationEventDTO> batch) {
+        events.addAll(batch);
+    }
+
+    @Override
+    public void commit(long position) {
+        this.position.set(position);
+    }
+
+    public List<CirculationEventDTO> getEvents() {
+        return List.copyOf(events);
+    }
+
+    public void clear() {
+        events.clear();
+    }
+}
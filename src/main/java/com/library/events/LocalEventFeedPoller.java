@@ -0,0 +1,55 @@
+package com.library.events;
+
+import com.library.dto.EventBatch;
+import com.library.exception.EventCursorExpiredException;
+import com.library.service.CirculationEventFeed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+// Чете feed-а в процеса (без HTTP) и го подава на локалния консуматор
+@Slf4j
+public class LocalEventFeedPoller {
+
+    private final CirculationEventFeed feed;
+    private final CirculationEventConsumer consumer;
+    private final int batchSize;
+
+    public LocalEventFeedPoller(CirculationEventFeed feed, CirculationEventConsumer consumer, int batchSize) {
+        this.feed = feed;
+        this.consumer = consumer;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${library.events.local-consumer.poll-interval-ms:1000}")
+    public void poll() {
+        try {
+            EventBatch batch;
+            do {
+                batch = feed.readAfter(consumer.lastPosition(), batchSize);
+                if (batch.getEvents().isEmpty()) {
+                    return;
+                }
+                consumer.accept(batch.getEvents());
+                consumer.commit(batch.getNextCursor());
+            } while (batch.isHasMore());
+        } catch (EventCursorExpiredException ex) {
+            // Събитията след курсора са изтрити от purge-а и няма да се появят - без нулиране
+            // консуматорът би получавал 410 при всяко изпълнение. Продължава от края на feed-а,
+            // а загубата се логва веднъж (следващото четене вече е от валидна позиция).
+            skipToEnd(ex);
+        } catch (Exception ex) {
+            // Курсорът не е преместен - същите събития ще се прочетат при следващото изпълнение
+            log.warn("Local event consumer failed at position {}: {}", consumer.lastPosition(), ex.getMessage());
+        }
+    }
+
+    private void skipToEnd(EventCursorExpiredException expired) {
+        try {
+            long resetTo = feed.lastPosition();
+            consumer.commit(resetTo);
+            log.error("Local event consumer lost events: {}. Skipped to position {}", expired.getMessage(), resetTo);
+        } catch (Exception ex) {
+            log.warn("Local event consumer could not skip past purged events: {}", ex.getMessage());
+        }
+    }
+}
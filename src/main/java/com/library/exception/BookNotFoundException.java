@@ -1,12 +1,13 @@
 package com.library.exception;
 
+// Без stack trace - виж ResourceNotFoundException
 public class BookNotFoundException extends ResourceNotFoundException {
     
     public BookNotFoundException(Long id) {
-        super("Book", "id", id);
+        super("Book", "id", id, false);
     }
 
     public BookNotFoundException(String isbn) {
-        super("Book", "ISBN", isbn);
+        super("Book", "ISBN", isbn, false);
     }
 }
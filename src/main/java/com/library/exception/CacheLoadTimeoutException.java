@@ -0,0 +1,8 @@
+package com.library.exception;
+
+public class CacheLoadTimeoutException extends RuntimeException {
+
+    public CacheLoadTimeoutException(String message) {
+        super(message);
+    }
+}
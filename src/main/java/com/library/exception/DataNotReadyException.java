@@ -0,0 +1,16 @@
+package com.library.exception;
+
+// Данните в паметта още се зареждат - клиентът да опита отново след retryAfterSeconds
+public class DataNotReadyException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public DataNotReadyException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,10 @@
+package com.library.exception;
+
+// Курсорът сочи преди най-старото запазено събитие - междинните са изтрити от purge-а
+public class EventCursorExpiredException extends RuntimeException {
+
+    public EventCursorExpiredException(long after, long firstRetained) {
+        super(String.format("Events after position %d have been purged; the oldest retained position is %d",
+                after, firstRetained));
+    }
+}
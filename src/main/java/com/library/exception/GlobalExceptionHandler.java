@@ -2,10 +2,13 @@ package com.library.exception;
 
 import jakarta.validation.ConstraintViolationException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -16,16 +19,31 @@ import org.springframework.web.method.annotation.MethodArgumentTypeMismatchExcep
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Slf4j
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    private static final long NOT_FOUND_LOG_INTERVAL_MS = 10_000;
+
+    // 404 са очаквани (ботове, стари линкове) - логваме най-много по един WARN на интервал
+    private final AtomicLong suppressedNotFound = new AtomicLong();
+    private volatile long lastNotFoundLogAt;
+
     // Handle Resource Not Found
     @ExceptionHandler(ResourceNotFoundException.class)
     public ResponseEntity<ApiError> handleResourceNotFound(
             ResourceNotFoundException ex, WebRequest request) {
-        log.error("Resource not found: {}", ex.getMessage());
+        long now = System.currentTimeMillis();
+        if (now - lastNotFoundLogAt >= NOT_FOUND_LOG_INTERVAL_MS) {
+            lastNotFoundLogAt = now;
+            log.warn("Resource not found: {} ({} more suppressed since last report)",
+                    ex.getMessage(), suppressedNotFound.getAndSet(0));
+        } else {
+            suppressedNotFound.incrementAndGet();
+            log.debug("Resource not found: {}", ex.getMessage());
+        }
         
         ApiError error = ApiError.builder()
                 .timestamp(LocalDateTime.now())
@@ -123,6 +141,81 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
     }
 
+    // Handle Cache Load Timeout
+    @ExceptionHandler(CacheLoadTimeoutException.class)
+    public ResponseEntity<ApiError> handleCacheLoadTimeout(
+            CacheLoadTimeoutException ex, WebRequest request) {
+        log.warn("Cache load timeout: {}", ex.getMessage());
+        
+        ApiError error = ApiError.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.SERVICE_UNAVAILABLE.value())
+                .error("Service Unavailable")
+                .message(ex.getMessage())
+                .path(request.getDescription(false))
+                .build();
+                
+        return new ResponseEntity<>(error, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    // Handle Data Not Ready (напр. аналитиката още се зарежда след старт)
+    @ExceptionHandler(DataNotReadyException.class)
+    public ResponseEntity<ApiError> handleDataNotReady(
+            DataNotReadyException ex, WebRequest request) {
+        log.warn("Data not ready: {}", ex.getMessage());
+        
+        ApiError error = ApiError.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.SERVICE_UNAVAILABLE.value())
+                .error("Service Unavailable")
+                .message(ex.getMessage())
+                .path(request.getDescription(false))
+                .build();
+                
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfterSeconds()))
+                .body(error);
+    }
+
+    // Handle Expired Event Cursor - консуматорът трябва да започне отначало
+    @ExceptionHandler(EventCursorExpiredException.class)
+    public ResponseEntity<ApiError> handleEventCursorExpired(
+            EventCursorExpiredException ex, WebRequest request) {
+        log.warn("Event cursor expired: {}", ex.getMessage());
+        
+        ApiError error = ApiError.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.GONE.value())
+                .error("Gone")
+                .message(ex.getMessage())
+                .path(request.getDescription(false))
+                .build();
+                
+        return new ResponseEntity<>(error, HttpStatus.GONE);
+    }
+
+    // Handle Database Unavailable (отворен прекъсвач или загубена връзка към базата)
+    @ExceptionHandler({
+            CannotCreateTransactionException.class,
+            DataAccessResourceFailureException.class
+    })
+    public ResponseEntity<ApiError> handleDatabaseUnavailable(
+            Exception ex, WebRequest request) {
+        log.warn("Database unavailable: {}", ex.getMessage());
+        
+        ApiError error = ApiError.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.SERVICE_UNAVAILABLE.value())
+                .error("Service Unavailable")
+                .message("Database is temporarily unavailable. Please try again later.")
+                .path(request.getDescription(false))
+                .build();
+                
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .body(error);
+    }
+
     // Handle Validation Errors
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ApiError> handleValidationExceptions(
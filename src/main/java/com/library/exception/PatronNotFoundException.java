@@ -1,12 +1,13 @@
 package com.library.exception;
 
+// Без stack trace - виж ResourceNotFoundException
 public class PatronNotFoundException extends ResourceNotFoundException {
     
     public PatronNotFoundException(Long id) {
-        super("Patron", "id", id);
+        super("Patron", "id", id, false);
     }
 
     public PatronNotFoundException(String email) {
-        super("Patron", "email", email);
+        super("Patron", "email", email, false);
     }
 }
@@ -16,6 +16,17 @@ public class ResourceNotFoundException extends RuntimeException {
         this.fieldValue = fieldValue;
     }
 
+    // writableStackTrace = false - за очаквани липси (сканиращи ботове), където
+    // попълването на stack trace е по-скъпо от самата заявка
+    protected ResourceNotFoundException(String resourceName, String fieldName, Object fieldValue,
+                                        boolean writableStackTrace) {
+        super(String.format("%s not found with %s : '%s'", resourceName, fieldName, fieldValue),
+                null, false, writableStackTrace);
+        this.resourceName = resourceName;
+        this.fieldName = fieldName;
+        this.fieldValue = fieldValue;
+    }
+
     public ResourceNotFoundException(String message) {
         super(message);
         this.resourceName = null;
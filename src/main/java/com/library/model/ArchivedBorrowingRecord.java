@@ -0,0 +1,91 @@
+package com.library.model;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Студена част на borrowing_records: върнати заемания, по-стари от library.archive.min-age.
+// Без връзки към books/patrons - заглавието и името се пазят, за да не зависи историята от тях.
+@Entity
+@Table(name = "borrowing_records_archive",
+       indexes = {
+           @Index(name = "idx_borrowing_archive_book_id", columnList = "book_id"),
+           @Index(name = "idx_borrowing_archive_patron_id", columnList = "patron_id")
+       })
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedBorrowingRecord implements Persistable<Long> {
+
+    // Същото id като в borrowing_records
+    @Id
+    private Long id;
+
+    @Column(name = "book_id", nullable = false)
+    private Long bookId;
+
+    @Column(name = "book_title", length = 200)
+    private String bookTitle;
+
+    @Column(name = "patron_id", nullable = false)
+    private Long patronId;
+
+    @Column(name = "patron_name", length = 101)
+    private String patronName;
+
+    @Column(name = "borrow_date", nullable = false)
+    private LocalDate borrowDate;
+
+    @Column(name = "due_date", nullable = false)
+    private LocalDate dueDate;
+
+    @Column(name = "return_date", nullable = false)
+    private LocalDate returnDate;
+
+    @Column(name = "actual_return_date")
+    private LocalDate actualReturnDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private BorrowingStatus status;
+
+    @Column(name = "late_fee")
+    private Double lateFee;
+
+    @Column(length = 500)
+    private String notes;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+
+    // id-то е зададено ръчно - без това save() би направил излишен SELECT (merge)
+    @Transient
+    @Builder.Default
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean newEntity = true;
+
+    @Override
+    public boolean isNew() {
+        return newEntity;
+    }
+
+    @PostLoad
+    @PostPersist
+    private void markNotNew() {
+        newEntity = false;
+    }
+}
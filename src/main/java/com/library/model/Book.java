@@ -6,7 +6,11 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
@@ -14,6 +18,10 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+// Second-level кеш: READ_WRITE държи soft lock до commit, така че друга транзакция
+// не може да прочете версия (@Version), по-стара от записаната в базата
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NaturalIdCache
 @Table(name = "books", 
        uniqueConstraints = @UniqueConstraint(columnNames = "isbn"))
 @Data
@@ -22,8 +30,10 @@ import java.util.List;
 @AllArgsConstructor
 public class Book {
 
+    // Pooled sequence: един nextval на 50 реда, така че INSERT-ите могат да се групират (jdbc.batch_size)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "books_seq")
+    @SequenceGenerator(name = "books_seq", sequenceName = "books_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Title is required")
@@ -39,6 +49,7 @@ public class Book {
     @NotBlank(message = "ISBN is required")
     @Pattern(regexp = "^(?:ISBN(?:-13)?:? )?(?=[0-9]{13}$|(?=(?:[0-9]+[- ]){4})[- 0-9]{17}$)97[89][- ]?[0-9]{1,5}[- ]?[0-9]+[- ]?[0-9]+[- ]?[0-9]$",
              message = "Invalid ISBN format")
+    @NaturalId(mutable = true)
     @Column(nullable = false, unique = true, length = 20)
     private String isbn;
 
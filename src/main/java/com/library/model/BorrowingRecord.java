@@ -24,8 +24,10 @@ import java.time.temporal.ChronoUnit;
 @AllArgsConstructor
 public class BorrowingRecord {
 
+    // Pooled sequence: един nextval на 50 реда, така че INSERT-ите могат да се групират (jdbc.batch_size)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "borrowing_records_seq")
+    @SequenceGenerator(name = "borrowing_records_seq", sequenceName = "borrowing_records_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
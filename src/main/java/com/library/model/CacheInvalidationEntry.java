@@ -0,0 +1,38 @@
+package com.library.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "cache_invalidations",
+       indexes = @Index(name = "idx_cache_invalidations_created_at", columnList = "created_at"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheInvalidationEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "cache_name", nullable = false, length = 50)
+    private String cacheName;
+
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    @Column(name = "entity_version")
+    private Long entityVersion;
+
+    @Column(name = "origin_node", nullable = false, length = 64)
+    private String originNode;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,92 @@
+package com.library.model;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Read модел на каталога: книга + текущо заемане в един ред, без JOIN към borrowing_records.
+// Пише се само от CatalogProjection, в същата транзакция като промяната на книгата/заемането.
+@Entity
+@Table(name = "catalog_view",
+       indexes = {
+           @Index(name = "idx_catalog_available_title", columnList = "available, title"),
+           @Index(name = "idx_catalog_author", columnList = "author"),
+           @Index(name = "idx_catalog_due_date", columnList = "current_due_date")
+       })
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogEntry implements Persistable<Long> {
+
+    // Същото id като в books
+    @Id
+    @Column(name = "book_id")
+    private Long bookId;
+
+    @Column(nullable = false, length = 20)
+    private String isbn;
+
+    @Column(nullable = false, length = 200)
+    private String title;
+
+    @Column(nullable = false, length = 100)
+    private String author;
+
+    @Column(length = 100)
+    private String publisher;
+
+    @Column(name = "publication_year")
+    private Integer publicationYear;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private BookStatus status;
+
+    @Column(nullable = false)
+    private boolean available;
+
+    @Column(name = "current_patron_id")
+    private Long currentPatronId;
+
+    @Column(name = "current_due_date")
+    private LocalDate currentDueDate;
+
+    // Включва и архивираните заемания
+    @Column(name = "borrow_count", nullable = false)
+    private long borrowCount;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Transient
+    @Builder.Default
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean newEntity = true;
+
+    @Override
+    public Long getId() {
+        return bookId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newEntity;
+    }
+
+    @PostLoad
+    @PostPersist
+    private void markNotNew() {
+        newEntity = false;
+    }
+}
@@ -0,0 +1,63 @@
+package com.library.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Outbox запис на събитие от заеманията. Пише се в транзакцията на промяната;
+// position се задава по-късно от CirculationEventRelay в реда на commit-ите.
+@Entity
+@Table(name = "circulation_events",
+       indexes = {
+           @Index(name = "uk_circulation_events_position", columnList = "feed_position", unique = true)
+       })
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CirculationEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "circulation_events_seq")
+    @SequenceGenerator(name = "circulation_events_seq", sequenceName = "circulation_events_seq", allocationSize = 50)
+    private Long id;
+
+    // null - още не е публикувано във feed-а
+    @Column(name = "feed_position")
+    private Long position;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false, length = 30)
+    private CirculationEventType type;
+
+    @Column(name = "book_id", nullable = false)
+    private Long bookId;
+
+    @Column(name = "patron_id")
+    private Long patronId;
+
+    @Column(name = "borrowing_record_id")
+    private Long borrowingRecordId;
+
+    @Column(name = "due_date")
+    private LocalDate dueDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "book_status", length = 20)
+    private BookStatus bookStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "previous_status", length = 20)
+    private BookStatus previousStatus;
+
+    @Column(name = "late_fee")
+    private Double lateFee;
+
+    @Column(name = "occurred_at", nullable = false)
+    private LocalDateTime occurredAt;
+}
@@ -0,0 +1,8 @@
+package com.library.model;
+
+public enum CirculationEventType {
+    BOOK_BORROWED,
+    BOOK_RETURNED,
+    LOAN_EXTENDED,
+    STATUS_CHANGED
+}
@@ -0,0 +1,31 @@
+package com.library.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Единствен ред с последната раздадена позиция. Заключва се от relay-а (SELECT ... FOR UPDATE),
+// така че само един възел номерира събитията в даден момент.
+@Entity
+@Table(name = "circulation_feed_state")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CirculationFeedState {
+
+    public static final long SINGLETON_ID = 1L;
+
+    @Id
+    private Long id;
+
+    @Column(name = "last_position", nullable = false)
+    private long lastPosition;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
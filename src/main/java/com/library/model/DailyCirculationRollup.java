@@ -0,0 +1,45 @@
+package com.library.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Обобщение на заеманията за един ден; пише се при затваряне на деня (CirculationRollupService).
+// Справките за период четат само тези редове, а не borrowing_records.
+@Entity
+@Table(name = "daily_circulation_rollups")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyCirculationRollup {
+
+    @Id
+    private LocalDate day;
+
+    @Column(nullable = false)
+    private long borrowed;
+
+    @Column(nullable = false)
+    private long returned;
+
+    // Заемания, станали просрочени този ден (срокът е изтекъл предния ден без връщане)
+    @Column(name = "new_overdue", nullable = false)
+    private long newOverdue;
+
+    // Глоби от върнатите този ден
+    @Column(name = "late_fees", nullable = false)
+    private double lateFees;
+
+    // Отворени заемания в края на деня
+    @Column(name = "active_loans", nullable = false)
+    private long activeLoans;
+
+    @Column(name = "computed_at", nullable = false)
+    private LocalDateTime computedAt;
+}
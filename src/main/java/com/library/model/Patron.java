@@ -6,7 +6,11 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDate;
@@ -15,6 +19,8 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NaturalIdCache
 @Table(name = "patrons")
 @Data
 @Builder
@@ -22,8 +28,10 @@ import java.util.List;
 @AllArgsConstructor
 public class Patron {
 
+    // Pooled sequence: един nextval на 50 реда, така че INSERT-ите могат да се групират (jdbc.batch_size)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "patrons_seq")
+    @SequenceGenerator(name = "patrons_seq", sequenceName = "patrons_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "First name is required")
@@ -38,6 +46,7 @@ public class Patron {
 
     @NotBlank(message = "Email is required")
     @Email(message = "Invalid email format")
+    @NaturalId(mutable = true)
     @Column(nullable = false, unique = true, length = 100)
     private String email;
 
@@ -0,0 +1,51 @@
+package com.library.repository;
+
+import com.library.model.ArchivedBorrowingRecord;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ArchivedBorrowingRecordRepository extends JpaRepository<ArchivedBorrowingRecord, Long> {
+
+    List<ArchivedBorrowingRecord> findByBookIdOrderByBorrowDateDesc(Long bookId);
+
+    List<ArchivedBorrowingRecord> findByPatronIdOrderByBorrowDateDesc(Long patronId);
+
+    long countByPatronId(Long patronId);
+
+    long countByBookId(Long bookId);
+
+    @Query("SELECT a.bookId AS bookId, COUNT(a) AS borrowCount FROM ArchivedBorrowingRecord a GROUP BY a.bookId")
+    List<BookBorrowCount> countBorrowsByBook();
+
+    @Query("SELECT a.bookId AS bookId, COUNT(a) AS borrowCount FROM ArchivedBorrowingRecord a " +
+           "WHERE a.bookId IN :bookIds GROUP BY a.bookId")
+    List<BookBorrowCount> countBorrowsByBookIds(@Param("bookIds") Collection<Long> bookIds);
+
+    // За дневните обобщения - архивът съдържа само върнати заемания
+    long countByBorrowDate(LocalDate borrowDate);
+
+    long countByReturnDate(LocalDate returnDate);
+
+    @Query("SELECT COUNT(a) FROM ArchivedBorrowingRecord a WHERE a.dueDate = :dueDate AND a.returnDate > a.dueDate")
+    long countOverdueAfter(@Param("dueDate") LocalDate dueDate);
+
+    @Query("SELECT COALESCE(SUM(a.lateFee), 0.0) FROM ArchivedBorrowingRecord a WHERE a.returnDate = :day")
+    double sumLateFeesReturnedOn(@Param("day") LocalDate day);
+
+    @Query("SELECT COUNT(a) FROM ArchivedBorrowingRecord a WHERE a.borrowDate <= :day AND a.returnDate > :day")
+    long countActiveAt(@Param("day") LocalDate day);
+
+    // Порция за колонната аналитика; книгата може вече да е изтрита (LEFT JOIN)
+    @Query("SELECT a.id AS id, a.bookId AS bookId, a.patronId AS patronId, a.borrowDate AS borrowDate, " +
+           "a.dueDate AS dueDate, a.returnDate AS returnDate, b.author AS author, b.publisher AS publisher " +
+           "FROM ArchivedBorrowingRecord a LEFT JOIN Book b ON b.id = a.bookId WHERE a.id > :afterId ORDER BY a.id")
+    List<LoanFact> findLoanFactsAfter(@Param("afterId") Long afterId, Limit limit);
+}
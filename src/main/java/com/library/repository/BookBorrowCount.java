@@ -0,0 +1,7 @@
+package com.library.repository;
+
+// Брой заемания на книга - поотделно от borrowing_records и от архива
+public interface BookBorrowCount {
+    Long getBookId();
+    long getBorrowCount();
+}
@@ -2,8 +2,14 @@ package com.library.repository;
 
 import com.library.model.Book;
 import com.library.model.BookStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -17,7 +23,21 @@ public interface BookRepository extends JpaRepository<Book, Long> {
     Optional<Book> findByIsbn(String isbn);
     
     boolean existsByIsbn(String isbn);
+
+    // Порция за преизграждането на catalog_view (keyset по id). FOR SHARE - пишещите
+    // методи изчакват края на порцията, а порцията изчаква незавършените промени.
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT b FROM Book b WHERE b.id > :id ORDER BY b.id")
+    List<Book> findPageForShare(@Param("id") Long id, Limit limit);
+
+    // Вика се от CatalogProjection преди промяна на catalog_view
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Book b WHERE b.id = :id")
+    Optional<Book> findForUpdate(@Param("id") Long id);
     
+    // Query cache: пази само id-тата, самите книги идват от second-level кеша.
+    // Hibernate го обезсилва автоматично при всеки запис в books.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Book> findByStatus(BookStatus status);
     
     // Търсене по заглавие (без значение на главни/малки букви)
@@ -37,13 +57,6 @@ public interface BookRepository extends JpaRepository<Book, Long> {
     // Намери книги, публикувани между години
     List<Book> findByPublicationYearBetween(Integer startYear, Integer endYear);
     
-    // Намери най-заеманите книги
-    @Query("SELECT b, COUNT(br) as borrowCount " +
-           "FROM Book b JOIN b.borrowingRecords br " +
-           "GROUP BY b " +
-           "ORDER BY borrowCount DESC")
-    List<Object[]> findMostBorrowedBooks(@Param("limit") int limit);
-    
     // Брой на заети книги от конкретен читател в момента
     @Query("SELECT COUNT(br) FROM BorrowingRecord br " +
            "WHERE br.patron.id = :patronId AND br.returnDate IS NULL")
@@ -1,6 +1,8 @@
 package com.library.repository;
 
 import com.library.model.BorrowingRecord;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -8,6 +10,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,6 +24,7 @@ public interface BorrowingRecordRepository extends JpaRepository<BorrowingRecord
        long countByReturnDate(LocalDate returnDate);
        long countByReturnDateIsNullAndDueDateBefore(LocalDate date);
        long countByReturnDateIsNull();
+       long countByBookId(Long bookId);
 
 // Провери дали вече имаш тези методи:
 // boolean existsByBookIdAndReturnDateIsNull(Long bookId);
@@ -43,6 +47,45 @@ public interface BorrowingRecordRepository extends JpaRepository<BorrowingRecord
     
     // Закъснели заемания
     List<BorrowingRecord> findByReturnDateIsNullAndDueDateBefore(LocalDate date);
+
+    // Порция върнати заемания за архивиране. SKIP LOCKED - всеки възел взема различни редове,
+    // заключени до края на транзакцията на порцията.
+    @Query(value = "SELECT id FROM borrowing_records WHERE return_date < :cutoff ORDER BY id " +
+                   "LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Long> lockReturnedBefore(@Param("cutoff") LocalDate cutoff, @Param("limit") int limit);
+
+    // Заключената порция заедно с книгата и читателя
+    @EntityGraph(attributePaths = {"book", "patron"})
+    List<BorrowingRecord> findByIdInOrderByIdAsc(Collection<Long> ids);
+
+    // Най-заемани книги - сумира се с ArchivedBorrowingRecordRepository.countBorrowsByBook
+    @Query("SELECT br.book.id AS bookId, COUNT(br) AS borrowCount FROM BorrowingRecord br GROUP BY br.book.id")
+    List<BookBorrowCount> countBorrowsByBook();
+
+    // За преизграждането на catalog_view - само за порция книги
+    @Query("SELECT br.book.id AS bookId, COUNT(br) AS borrowCount FROM BorrowingRecord br " +
+           "WHERE br.book.id IN :bookIds GROUP BY br.book.id")
+    List<BookBorrowCount> countBorrowsByBookIds(@Param("bookIds") Collection<Long> bookIds);
+
+    List<BorrowingRecord> findByBookIdInAndReturnDateIsNull(Collection<Long> bookIds);
+
+    // За дневните обобщения (DailyRollupCalculator)
+    @Query("SELECT COUNT(br) FROM BorrowingRecord br " +
+           "WHERE br.dueDate = :dueDate AND (br.returnDate IS NULL OR br.returnDate > br.dueDate)")
+    long countOverdueAfter(@Param("dueDate") LocalDate dueDate);
+
+    @Query("SELECT COALESCE(SUM(br.lateFee), 0.0) FROM BorrowingRecord br WHERE br.returnDate = :day")
+    double sumLateFeesReturnedOn(@Param("day") LocalDate day);
+
+    @Query("SELECT COUNT(br) FROM BorrowingRecord br " +
+           "WHERE br.borrowDate <= :day AND (br.returnDate IS NULL OR br.returnDate > :day)")
+    long countActiveAt(@Param("day") LocalDate day);
+
+    // Порция за колонната аналитика (keyset по id)
+    @Query("SELECT br.id AS id, b.id AS bookId, br.patron.id AS patronId, br.borrowDate AS borrowDate, " +
+           "br.dueDate AS dueDate, br.returnDate AS returnDate, b.author AS author, b.publisher AS publisher " +
+           "FROM BorrowingRecord br JOIN br.book b WHERE br.id > :afterId ORDER BY br.id")
+    List<LoanFact> findLoanFactsAfter(@Param("afterId") Long afterId, Limit limit);
     
     // Статистика за читател
     @Query("SELECT COUNT(br) FROM BorrowingRecord br " +
@@ -0,0 +1,30 @@
+package com.library.repository;
+
+import com.library.model.CacheInvalidationEntry;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface CacheInvalidationRepository extends JpaRepository<CacheInvalidationEntry, Long> {
+
+    // Курсор по id (BIGSERIAL) - не зависи от часовниците на възлите
+    List<CacheInvalidationEntry> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    // Препроверка на пропуснатите id-та (редове, които още не бяха commit-нати)
+    List<CacheInvalidationEntry> findByIdInOrderByIdAsc(Collection<Long> ids);
+
+    @Query("SELECT COALESCE(MAX(c.id), 0) FROM CacheInvalidationEntry c")
+    long findMaxId();
+
+    @Modifying
+    @Query("DELETE FROM CacheInvalidationEntry c WHERE c.createdAt < :cutoff")
+    int deleteOlderThan(@Param("cutoff") LocalDateTime cutoff);
+}
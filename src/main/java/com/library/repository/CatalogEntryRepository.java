@@ -0,0 +1,27 @@
+package com.library.repository;
+
+import com.library.model.CatalogEntry;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Всички заявки са върху една таблица (catalog_view) и минават по индекс
+@Repository
+public interface CatalogEntryRepository extends JpaRepository<CatalogEntry, Long> {
+
+    Page<CatalogEntry> findByAvailable(boolean available, Pageable pageable);
+
+    // Търсене по начало на заглавие/автор - upper(...) индексите от V5
+    Page<CatalogEntry> findByTitleStartingWithIgnoreCase(String title, Pageable pageable);
+
+    Page<CatalogEntry> findByAuthorStartingWithIgnoreCase(String author, Pageable pageable);
+
+    List<CatalogEntry> findByCurrentDueDateBeforeOrderByCurrentDueDateAsc(LocalDate date);
+
+    // Редовете в диапазона на една порция книги при преизграждане
+    List<CatalogEntry> findByBookIdGreaterThanAndBookIdLessThanEqual(Long afterId, Long lastId);
+}
@@ -0,0 +1,37 @@
+package com.library.repository;
+
+import com.library.model.CirculationEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface CirculationEventRepository extends JpaRepository<CirculationEvent, Long> {
+
+    // Непубликувани, в реда на записване
+    List<CirculationEvent> findByPositionIsNullOrderByIdAsc(Limit limit);
+
+    // Страница от feed-а след курсора
+    List<CirculationEvent> findByPositionGreaterThanOrderByPositionAsc(long position, Limit limit);
+
+    @Query("SELECT COALESCE(MAX(e.position), 0) FROM CirculationEvent e")
+    long findLastPosition();
+
+    // null - няма публикувани събития
+    @Query("SELECT MIN(e.position) FROM CirculationEvent e")
+    Long findFirstPosition();
+
+    @Query("SELECT MIN(e.position) FROM CirculationEvent e WHERE e.occurredAt >= :since")
+    Long findFirstPositionSince(@Param("since") LocalDateTime since);
+
+    // Трие само начало на feed-а, така че запазените позиции остават последователни
+    @Modifying
+    @Query("DELETE FROM CirculationEvent e WHERE e.position < :position")
+    int deletePublishedBefore(@Param("position") long position);
+}
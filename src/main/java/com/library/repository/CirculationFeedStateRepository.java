@@ -0,0 +1,19 @@
+package com.library.repository;
+
+import com.library.model.CirculationFeedState;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface CirculationFeedStateRepository extends JpaRepository<CirculationFeedState, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM CirculationFeedState s WHERE s.id = :id")
+    Optional<CirculationFeedState> findForUpdate(@Param("id") Long id);
+}
@@ -0,0 +1,34 @@
+package com.library.repository;
+
+import com.library.model.DailyCirculationRollup;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface DailyCirculationRollupRepository extends JpaRepository<DailyCirculationRollup, LocalDate> {
+
+    List<DailyCirculationRollup> findByDayBetweenOrderByDayAsc(LocalDate from, LocalDate to);
+
+    Optional<DailyCirculationRollup> findTopByOrderByDayDesc();
+
+    // Празен ред за деня, ако още няма; едновременен INSERT изчаква другия и не прави нищо
+    @Modifying
+    @Query(value = "INSERT INTO daily_circulation_rollups " +
+                   "(day, borrowed, returned, new_overdue, late_fees, active_loans, computed_at) " +
+                   "VALUES (:day, 0, 0, 0, 0, 0, :now) ON CONFLICT (day) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("day") LocalDate day, @Param("now") LocalDateTime now);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM DailyCirculationRollup r WHERE r.day = :day")
+    Optional<DailyCirculationRollup> findForUpdate(@Param("day") LocalDate day);
+}
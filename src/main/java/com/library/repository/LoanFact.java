@@ -0,0 +1,15 @@
+package com.library.repository;
+
+import java.time.LocalDate;
+
+// Плосък ред за зареждане на аналитиката: заемане + автор/издател на книгата, без entity-та
+public interface LoanFact {
+    Long getId();
+    Long getBookId();
+    Long getPatronId();
+    LocalDate getBorrowDate();
+    LocalDate getDueDate();
+    LocalDate getReturnDate();
+    String getAuthor();
+    String getPublisher();
+}
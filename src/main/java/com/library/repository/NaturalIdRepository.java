@@ -0,0 +1,26 @@
+package com.library.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+// Търсене по @NaturalId (ISBN, email) през natural-id кеша на Hibernate.
+// findByIsbn/findByEmail от Spring Data винаги изпълняват SELECT, а това минава
+// през ##NaturalId региона и след това през second-level кеша на самото entity.
+@Repository
+public class NaturalIdRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Transactional(readOnly = true)
+    public <T> Optional<T> findBySimpleNaturalId(Class<T> entityType, Object naturalId) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(entityType)
+                .loadOptional(naturalId);
+    }
+}
@@ -2,8 +2,12 @@ package com.library.repository;
 
 import com.library.model.Patron;
 import com.library.model.MembershipStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -25,6 +29,9 @@ public interface PatronRepository extends JpaRepository<Patron, Long> {
     
     List<Patron> findByLastNameContainingIgnoreCase(String lastName);
     
+    // Keyset пагинация по id (без OFFSET)
+    List<Patron> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+    
     @Query("SELECT p FROM Patron p WHERE " +
            "LOWER(p.firstName) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
            "LOWER(p.lastName) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
@@ -38,5 +45,6 @@ public interface PatronRepository extends JpaRepository<Patron, Long> {
     List<Patron> findPatronsWithOverdueBooks();
     
     @Query("SELECT COUNT(p) FROM Patron p WHERE p.status = :status")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     long countByStatus(@Param("status") MembershipStatus status);
 }
\ No newline at end of file
@@ -0,0 +1,102 @@
+package com.library.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Заявки, които избират само поисканите колони (?fields=) вместо цялото entity
+@Repository
+public class ProjectionRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @FunctionalInterface
+    public interface ProjectionFilter<T> {
+        Predicate toPredicate(Root<T> root, CriteriaBuilder cb);
+    }
+
+    // limit <= 0 - без ограничение
+    public <T> List<Map<String, Object>> findAll(ProjectionSpec<T> spec,
+                                                 Collection<String> requestedFields,
+                                                 ProjectionFilter<T> filter,
+                                                 Sort sort,
+                                                 long offset,
+                                                 int limit) {
+        List<String> fields = spec.select(requestedFields);
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<T> root = query.from(spec.entityType());
+
+        List<Selection<?>> selections = new ArrayList<>(fields.size());
+        for (String field : fields) {
+            selections.add(resolve(root, spec.pathOf(field)).alias(field));
+        }
+        query.multiselect(selections);
+
+        if (filter != null) {
+            query.where(filter.toPredicate(root, cb));
+        }
+
+        List<Order> orders = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            Path<?> path = resolve(root, spec.pathOf(order.getProperty()));
+            orders.add(order.isAscending() ? cb.asc(path) : cb.desc(path));
+        }
+        query.orderBy(orders);
+
+        TypedQuery<Tuple> typedQuery = entityManager.createQuery(query);
+        if (offset > 0) {
+            typedQuery.setFirstResult(Math.toIntExact(offset));
+        }
+        if (limit > 0) {
+            typedQuery.setMaxResults(limit);
+        }
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Tuple tuple : typedQuery.getResultList()) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (String field : fields) {
+                row.put(field, tuple.get(field));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    public <T> long count(ProjectionSpec<T> spec, ProjectionFilter<T> filter) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<T> root = query.from(spec.entityType());
+        query.select(cb.count(root));
+        if (filter != null) {
+            query.where(filter.toPredicate(root, cb));
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private static Path<?> resolve(Root<?> root, String dottedPath) {
+        Path<?> path = root;
+        for (String part : dottedPath.split("\\.")) {
+            path = path.get(part);
+        }
+        return path;
+    }
+}
@@ -0,0 +1,100 @@
+package com.library.repository;
+
+import com.library.model.ArchivedBorrowingRecord;
+import com.library.model.Book;
+import com.library.model.BorrowingRecord;
+import com.library.model.Patron;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Бял списък от полета за ?fields= : име в API-то -> път в entity-то.
+// Само тези колони могат да попаднат в SELECT-а на проекцията.
+public record ProjectionSpec<T>(Class<T> entityType, Map<String, String> fields) {
+
+    public static final ProjectionSpec<Book> BOOKS = new ProjectionSpec<>(Book.class, paths(
+            "id", "id",
+            "title", "title",
+            "author", "author",
+            "isbn", "isbn",
+            "publicationYear", "publicationYear",
+            "publisher", "publisher",
+            "status", "status",
+            "description", "description",
+            "createdAt", "createdAt",
+            "updatedAt", "updatedAt",
+            "version", "version"));
+
+    public static final ProjectionSpec<Patron> PATRONS = new ProjectionSpec<>(Patron.class, paths(
+            "id", "id",
+            "firstName", "firstName",
+            "lastName", "lastName",
+            "email", "email",
+            "phoneNumber", "phoneNumber",
+            "address", "address",
+            "status", "status",
+            "membershipDate", "membershipDate",
+            "totalBooksBorrowed", "totalBooksBorrowed",
+            "createdAt", "createdAt",
+            "updatedAt", "updatedAt",
+            "version", "version"));
+
+    public static final ProjectionSpec<BorrowingRecord> BORROWING_RECORDS = new ProjectionSpec<>(BorrowingRecord.class, paths(
+            "id", "id",
+            "bookId", "book.id",
+            "bookTitle", "book.title",
+            "patronId", "patron.id",
+            "borrowDate", "borrowDate",
+            "dueDate", "dueDate",
+            "returnDate", "returnDate",
+            "status", "status",
+            "lateFee", "lateFee"));
+
+    // Същите имена на полета като BORROWING_RECORDS, за да се сливат резултатите от двете таблици
+    public static final ProjectionSpec<ArchivedBorrowingRecord> ARCHIVED_BORROWING_RECORDS = new ProjectionSpec<>(ArchivedBorrowingRecord.class, paths(
+            "id", "id",
+            "bookId", "bookId",
+            "bookTitle", "bookTitle",
+            "patronId", "patronId",
+            "borrowDate", "borrowDate",
+            "dueDate", "dueDate",
+            "returnDate", "returnDate",
+            "status", "status",
+            "lateFee", "lateFee"));
+
+    // Валидира поисканите полета; id винаги е първо (нужно за курсори и ETag-ове)
+    public List<String> select(Collection<String> requested) {
+        List<String> selected = new ArrayList<>();
+        selected.add("id");
+        for (String field : requested) {
+            String name = field.trim();
+            if (name.isEmpty() || selected.contains(name)) {
+                continue;
+            }
+            if (!fields.containsKey(name)) {
+                throw new IllegalArgumentException("Unknown field '" + name + "'. Allowed fields: " + fields.keySet());
+            }
+            selected.add(name);
+        }
+        return selected;
+    }
+
+    public String pathOf(String field) {
+        String path = fields.get(field);
+        if (path == null) {
+            throw new IllegalArgumentException("Unknown field '" + field + "'. Allowed fields: " + fields.keySet());
+        }
+        return path;
+    }
+
+    private static Map<String, String> paths(String... pairs) {
+        Map<String, String> map = new LinkedHashMap<>();
+        for (int i = 0; i < pairs.length; i += 2) {
+            map.put(pairs[i], pairs[i + 1]);
+        }
+        return map;
+    }
+}
@@ -0,0 +1,100 @@
+package com.library.search;
+
+// Разредената матрица книга -> книга -> претеглен брой и последните книги на всеки читател.
+// Всяко съвпадение тежи decayFactor^(възраст в дни). Броевете се пазят спрямо landmarkDay
+// (тегло decayFactor^(landmarkDay - ден)), така че добавянето не пипа старите стойности,
+// а уплътняването само ги умножава по decayFactor^(изминалите дни). Затова пълното
+// изграждане след рестарт дава същите броеве като поддържания дълго време индекс.
+// Не е thread-safe - синхронизацията е в CoOccurrenceIndex.
+final class CoOccurrenceGraph {
+
+    private final int maxNeighbors;
+    private final int historySize;
+    private final double decayFactor;
+    private final int landmarkDay;
+
+    private final IntObjectMap<IntCountMap> neighbors;
+    private final IntObjectMap<PatronHistory> histories;
+
+    CoOccurrenceGraph(int maxNeighbors, int historySize, double decayFactor, int landmarkDay) {
+        this(maxNeighbors, historySize, decayFactor, landmarkDay, new IntObjectMap<>(1024), new IntObjectMap<>(1024));
+    }
+
+    private CoOccurrenceGraph(int maxNeighbors, int historySize, double decayFactor, int landmarkDay,
+                              IntObjectMap<IntCountMap> neighbors, IntObjectMap<PatronHistory> histories) {
+        this.maxNeighbors = maxNeighbors;
+        this.historySize = historySize;
+        this.decayFactor = decayFactor;
+        this.landmarkDay = landmarkDay;
+        this.neighbors = neighbors;
+        this.histories = histories;
+    }
+
+    // Повторно подадено заемане (feed-ът е at-least-once) не променя нищо,
+    // докато книгата е в историята на читателя
+    void add(int book, int patron, int day) {
+        PatronHistory history = histories.get(patron);
+        if (history == null) {
+            history = new PatronHistory(historySize);
+            histories.put(patron, history);
+        }
+        history.lastDay = Math.max(history.lastDay, day);
+        // Повторно заемане на същата книга не е ново съвпадение
+        if (history.contains(book)) {
+            return;
+        }
+        float weight = (float) Math.pow(decayFactor, landmarkDay - day);
+        for (int i = 0; i < history.size(); i++) {
+            int other = history.get(i);
+            increment(book, other, weight);
+            increment(other, book, weight);
+        }
+        history.add(book);
+    }
+
+    // Най-честите k съседа като (брой << 32 | key) - виж IntCountMap.top
+    long[] top(int book, int k) {
+        IntCountMap counts = neighbors.get(book);
+        return counts == null ? new long[0] : counts.top(k);
+    }
+
+    // Пазения брой към ден day
+    double countAt(float stored, int day) {
+        return stored * Math.pow(decayFactor, day - landmarkDay);
+    }
+
+    // Нов граф с landmark day: подрязан до maxNeighbors, броеве под minCount отпадат,
+    // читателите без заемане след cutoffDay се забравят
+    CoOccurrenceGraph compacted(int day, double minCount, int cutoffDay) {
+        double factor = Math.pow(decayFactor, day - landmarkDay);
+        IntObjectMap<IntCountMap> compactedNeighbors = new IntObjectMap<>(neighbors.size());
+        for (int book : neighbors.keys()) {
+            IntCountMap counts = neighbors.get(book).pruned(maxNeighbors, factor, minCount);
+            if (counts.size() > 0) {
+                compactedNeighbors.put(book, counts);
+            }
+        }
+        return new CoOccurrenceGraph(maxNeighbors, historySize, decayFactor, day,
+                compactedNeighbors, histories.retain(history -> history.lastDay >= cutoffDay));
+    }
+
+    int books() {
+        return neighbors.size();
+    }
+
+    int patrons() {
+        return histories.size();
+    }
+
+    private void increment(int book, int other, float weight) {
+        IntCountMap counts = neighbors.get(book);
+        if (counts == null) {
+            counts = new IntCountMap(16);
+            neighbors.put(book, counts);
+        }
+        counts.increment(other, weight);
+        if (counts.size() > 2 * maxNeighbors) {
+            neighbors.put(book, counts.pruned(maxNeighbors, 1.0, 0));
+        }
+    }
+}
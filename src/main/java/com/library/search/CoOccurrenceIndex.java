@@ -0,0 +1,222 @@
+package com.library.search;
+
+import com.library.config.RecommendationProperties;
+import com.library.datasource.DataSourceWorkload;
+import com.library.datasource.Workload;
+import com.library.dto.CirculationEventDTO;
+import com.library.dto.EventBatch;
+import com.library.dto.RelatedBook;
+import com.library.exception.EventCursorExpiredException;
+import com.library.model.CirculationEventType;
+import com.library.repository.ArchivedBorrowingRecordRepository;
+import com.library.repository.BorrowingRecordRepository;
+import com.library.repository.LoanFact;
+import com.library.service.CirculationEventFeed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiFunction;
+
+// "Читателите, заели тази книга, заеха и..." - разредена матрица книга -> книга -> брой.
+// Всяко заемане увеличава двойките с последните книги на същия читател; всяка книга пази
+// само най-честите си съседи, така че четенето е обхождане на няколкостотин int-а.
+// Новите заемания идват от feed-а със събития, така че индексът вижда и другите възли.
+@Slf4j
+@Component
+@EnableConfigurationProperties(RecommendationProperties.class)
+public class CoOccurrenceIndex {
+
+    private static final int LOAD_PAGE_SIZE = 5000;
+
+    private final BorrowingRecordRepository borrowingRecordRepository;
+    private final ArchivedBorrowingRecordRepository archivedBorrowingRecordRepository;
+    private final CirculationEventFeed circulationEventFeed;
+    private final RecommendationProperties properties;
+
+    // Само за смяната на графа и промените от feed-а; изграждането и уплътняването
+    // вървят извън него, за да не спират четенето
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Изграждането, допълването и уплътняването не вървят едновременно
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    // null - още не е изграден
+    private CoOccurrenceGraph graph;
+    private long feedPosition;
+
+    public CoOccurrenceIndex(BorrowingRecordRepository borrowingRecordRepository,
+                             ArchivedBorrowingRecordRepository archivedBorrowingRecordRepository,
+                             CirculationEventFeed circulationEventFeed,
+                             RecommendationProperties properties) {
+        this.borrowingRecordRepository = borrowingRecordRepository;
+        this.archivedBorrowingRecordRepository = archivedBorrowingRecordRepository;
+        this.circulationEventFeed = circulationEventFeed;
+        this.properties = properties;
+    }
+
+    // Първоначално изграждане след старт: първо архивът (по-старите заемания), после живата таблица
+    @EventListener(ApplicationReadyEvent.class)
+    @DataSourceWorkload(Workload.BATCH)
+    public void rebuild() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        log.info("Building co-occurrence index");
+        long started = System.currentTimeMillis();
+
+        refreshLock.lock();
+        try {
+            // Позицията се взема преди данните: заеманията след нея може вече да са заредени,
+            // но повторното им прилагане не добавя нищо (виж CoOccurrenceGraph.add)
+            long position = circulationEventFeed.lastPosition();
+
+            CoOccurrenceGraph fresh = newGraph(today());
+            load(fresh, archivedBorrowingRecordRepository::findLoanFactsAfter);
+            load(fresh, borrowingRecordRepository::findLoanFactsAfter);
+
+            lock.writeLock().lock();
+            try {
+                graph = fresh;
+                feedPosition = position;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("Co-occurrence index built for {} books in {} ms",
+                    fresh.books(), System.currentTimeMillis() - started);
+        } finally {
+            refreshLock.unlock();
+        }
+        refresh();
+    }
+
+    // Допълване от feed-а
+    @Scheduled(fixedDelayString = "${library.recommendations.refresh-interval-ms:2000}")
+    public void refresh() {
+        if (!properties.isEnabled() || !refreshLock.tryLock()) {
+            return;
+        }
+        try {
+            if (graph == null) {
+                return;
+            }
+            EventBatch batch;
+            do {
+                batch = circulationEventFeed.readAfter(feedPosition, properties.getFeedBatchSize());
+                lock.writeLock().lock();
+                try {
+                    for (CirculationEventDTO event : batch.getEvents()) {
+                        if (event.getType() == CirculationEventType.BOOK_BORROWED
+                                && indexable(event.getBookId()) && indexable(event.getPatronId())) {
+                            graph.add(Math.toIntExact(event.getBookId()), Math.toIntExact(event.getPatronId()),
+                                    Math.toIntExact(event.getOccurredAt().toLocalDate().toEpochDay()));
+                        }
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                feedPosition = batch.getNextCursor();
+            } while (batch.isHasMore());
+        } catch (EventCursorExpiredException ex) {
+            // Пропуснатите заемания се наваксват при следващото пълно изграждане
+            log.warn("Co-occurrence index fell behind the event feed, skipping to its end: {}", ex.getMessage());
+            feedPosition = circulationEventFeed.lastPosition();
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    public List<RelatedBook> related(Long bookId, int limit) {
+        // Графът е с int ключове - книга извън обхвата им няма и съседи
+        if (!indexable(bookId)) {
+            return List.of();
+        }
+        int day = today();
+        lock.readLock().lock();
+        try {
+            if (graph == null) {
+                return List.of();
+            }
+            long[] top = graph.top(Math.toIntExact(bookId), limit);
+            List<RelatedBook> result = new ArrayList<>(top.length);
+            for (long entry : top) {
+                result.add(RelatedBook.builder()
+                        .bookId((long) IntCountMap.keyOf(entry))
+                        .coBorrowCount(graph.countAt(IntCountMap.countOf(entry), day))
+                        .build());
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // SCHEDULED JOB - уплътняване всяка нощ в 4:30: подрязване до maxNeighbors,
+    // избледняване на броевете до днешния ден и забравяне на неактивните читатели.
+    // Новият граф се строи извън lock-а и само се сменя.
+    @Scheduled(cron = "${library.recommendations.compaction-cron:0 30 4 * * *}")
+    public void compact() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+
+        refreshLock.lock();
+        try {
+            if (graph == null) {
+                return;
+            }
+            // Докато refreshLock е взет, графът не се променя - четенето без lock е безопасно
+            int cutoffDay = Math.toIntExact(LocalDate.now().minus(properties.getHistoryRetention()).toEpochDay());
+            CoOccurrenceGraph compacted = graph.compacted(today(), properties.getMinCount(), cutoffDay);
+
+            lock.writeLock().lock();
+            try {
+                graph = compacted;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("Co-occurrence index compacted: {} books, {} patron histories in {} ms",
+                    compacted.books(), compacted.patrons(), System.currentTimeMillis() - started);
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private CoOccurrenceGraph newGraph(int landmarkDay) {
+        return new CoOccurrenceGraph(properties.getMaxNeighbors(), properties.getHistorySize(),
+                properties.getDecayFactor(), landmarkDay);
+    }
+
+    private static void load(CoOccurrenceGraph target, BiFunction<Long, Limit, List<LoanFact>> source) {
+        long lastId = 0L;
+        List<LoanFact> chunk;
+        do {
+            chunk = source.apply(lastId, Limit.of(LOAD_PAGE_SIZE));
+            for (LoanFact fact : chunk) {
+                lastId = fact.getId();
+                if (!indexable(fact.getBookId()) || !indexable(fact.getPatronId())) {
+                    continue;
+                }
+                target.add(Math.toIntExact(fact.getBookId()), Math.toIntExact(fact.getPatronId()),
+                        Math.toIntExact(fact.getBorrowDate().toEpochDay()));
+            }
+        } while (chunk.size() == LOAD_PAGE_SIZE);
+    }
+
+    private static boolean indexable(Long id) {
+        return id != null && id >= Integer.MIN_VALUE && id <= Integer.MAX_VALUE;
+    }
+
+    private static int today() {
+        return Math.toIntExact(LocalDate.now().toEpochDay());
+    }
+}
@@ -0,0 +1,149 @@
+package com.library.search;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+// Компресирано (radix) дърво: всеки ръб носи цял низ, а не един символ.
+// Не е thread-safe - синхронизацията е отговорност на извикващия.
+public class CompressedTrie {
+
+    private final Node root = new Node("");
+
+    public void insert(String key, long id) {
+        if (key == null || key.isEmpty()) {
+            return;
+        }
+        insert(root, key, id);
+    }
+
+    public void remove(String key, long id) {
+        if (key == null || key.isEmpty()) {
+            return;
+        }
+        remove(root, key, id);
+    }
+
+    // Събира до limit id-та с ключове, започващи с prefix, в лексикографски ред
+    public void collect(String prefix, int limit, Collection<Long> out) {
+        Node node = root;
+        String remaining = prefix;
+
+        while (!remaining.isEmpty()) {
+            Node child = node.children.get(remaining.charAt(0));
+            if (child == null) {
+                return;
+            }
+            int common = commonPrefixLength(child.label, remaining);
+            if (common == remaining.length()) {
+                // Префиксът свършва в (или точно в края на) етикета на детето
+                node = child;
+                break;
+            }
+            if (common < child.label.length()) {
+                return;
+            }
+            remaining = remaining.substring(common);
+            node = child;
+        }
+
+        collectSubtree(node, limit, out);
+    }
+
+    public void clear() {
+        root.children.clear();
+        root.ids.clear();
+    }
+
+    private void insert(Node node, String key, long id) {
+        while (true) {
+            if (key.isEmpty()) {
+                node.ids.add(id);
+                return;
+            }
+
+            char first = key.charAt(0);
+            Node child = node.children.get(first);
+            if (child == null) {
+                Node leaf = new Node(key);
+                leaf.ids.add(id);
+                node.children.put(first, leaf);
+                return;
+            }
+
+            int common = commonPrefixLength(child.label, key);
+            if (common < child.label.length()) {
+                // Разделяне на ръба на общата част
+                Node split = new Node(child.label.substring(0, common));
+                child.label = child.label.substring(common);
+                split.children.put(child.label.charAt(0), child);
+                node.children.put(first, split);
+                child = split;
+            }
+
+            node = child;
+            key = key.substring(common);
+        }
+    }
+
+    // Връща true, ако възелът е останал празен и трябва да бъде премахнат
+    private boolean remove(Node node, String key, long id) {
+        if (key.isEmpty()) {
+            node.ids.remove(id);
+            return node.ids.isEmpty() && node.children.isEmpty();
+        }
+
+        char first = key.charAt(0);
+        Node child = node.children.get(first);
+        if (child == null || !key.startsWith(child.label)) {
+            return false;
+        }
+
+        if (remove(child, key.substring(child.label.length()), id)) {
+            node.children.remove(first);
+        } else if (child.ids.isEmpty() && child.children.size() == 1) {
+            // Сливане на възел с единствено дете, за да остане дървото компресирано
+            Node grandChild = child.children.values().iterator().next();
+            grandChild.label = child.label + grandChild.label;
+            node.children.put(first, grandChild);
+        }
+
+        return node != root && node.ids.isEmpty() && node.children.isEmpty();
+    }
+
+    private void collectSubtree(Node node, int limit, Collection<Long> out) {
+        for (Long id : node.ids) {
+            if (out.size() >= limit) {
+                return;
+            }
+            out.add(id);
+        }
+        for (Map.Entry<Character, Node> entry : node.children.entrySet()) {
+            if (out.size() >= limit) {
+                return;
+            }
+            collectSubtree(entry.getValue(), limit, out);
+        }
+    }
+
+    private static int commonPrefixLength(String a, String b) {
+        int max = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < max && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static final class Node {
+        private String label;
+        private final TreeMap<Character, Node> children = new TreeMap<>();
+        private final Set<Long> ids = new TreeSet<>();
+
+        private Node(String label) {
+            this.label = label;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.library.search;
+
+import java.util.Arrays;
+
+// int -> претеглен брой (float) с отворено адресиране, без boxing.
+// Изтриване няма - pruning строи нова карта.
+final class IntCountMap {
+
+    private static final int EMPTY = Integer.MIN_VALUE;
+
+    private int[] keys;
+    private float[] counts;
+    private int mask;
+    private int size;
+
+    IntCountMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(8, expectedSize * 2 - 1)) << 1;
+        keys = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        counts = new float[capacity];
+        mask = capacity - 1;
+    }
+
+    // delta >= 0
+    void increment(int key, float delta) {
+        if ((size + 1) * 2 > keys.length) {
+            rehash(keys.length << 1);
+        }
+        int index = indexOf(key);
+        if (keys[index] != key) {
+            keys[index] = key;
+            size++;
+        }
+        counts[index] += delta;
+    }
+
+    float get(int key) {
+        int index = indexOf(key);
+        return keys[index] == key ? counts[index] : 0f;
+    }
+
+    int size() {
+        return size;
+    }
+
+    // Най-честите k съседа: (битовете на броя << 32 | key), подредени низходящо.
+    // За неотрицателни float числа битовете като int нарастват заедно със стойността.
+    long[] top(int k) {
+        long[] packed = new long[size];
+        int n = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                packed[n++] = ((long) Float.floatToIntBits(counts[i]) << 32) | (keys[i] & 0xFFFFFFFFL);
+            }
+        }
+        Arrays.sort(packed);
+        int limit = Math.min(k, n);
+        long[] result = new long[limit];
+        for (int i = 0; i < limit; i++) {
+            result[i] = packed[n - 1 - i];
+        }
+        return result;
+    }
+
+    // Нова карта само с най-честите k, броевете умножени по factor; под minCount отпадат.
+    // Броят е дробен, така че и единично съвпадение избледнява постепенно.
+    IntCountMap pruned(int k, double factor, double minCount) {
+        long[] best = top(k);
+        IntCountMap result = new IntCountMap(best.length);
+        for (long entry : best) {
+            float count = (float) (countOf(entry) * factor);
+            if (count >= minCount) {
+                result.increment(keyOf(entry), count);
+            }
+        }
+        return result;
+    }
+
+    static int keyOf(long packed) {
+        return (int) packed;
+    }
+
+    static float countOf(long packed) {
+        return Float.intBitsToFloat((int) (packed >>> 32));
+    }
+
+    private int indexOf(int key) {
+        int index = (key * 0x9E3779B9) & mask;
+        while (keys[index] != EMPTY && keys[index] != key) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        float[] oldCounts = counts;
+        keys = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        counts = new float[capacity];
+        mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int index = indexOf(oldKeys[i]);
+                keys[index] = oldKeys[i];
+                counts[index] = oldCounts[i];
+            }
+        }
+    }
+}
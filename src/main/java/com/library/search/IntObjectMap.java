@@ -0,0 +1,92 @@
+package com.library.search;
+
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+// int -> обект с отворено адресиране (без Integer ключове)
+final class IntObjectMap<V> {
+
+    private static final int EMPTY = Integer.MIN_VALUE;
+
+    private int[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+
+    IntObjectMap(int expectedSize) {
+        allocate(Integer.highestOneBit(Math.max(8, expectedSize * 2 - 1)) << 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(int key) {
+        int index = indexOf(key);
+        return keys[index] == key ? (V) values[index] : null;
+    }
+
+    void put(int key, V value) {
+        if ((size + 1) * 2 > keys.length) {
+            rehash(keys.length << 1);
+        }
+        int index = indexOf(key);
+        if (keys[index] != key) {
+            keys[index] = key;
+            size++;
+        }
+        values[index] = value;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int[] keys() {
+        int[] result = new int[size];
+        int n = 0;
+        for (int key : keys) {
+            if (key != EMPTY) {
+                result[n++] = key;
+            }
+        }
+        return result;
+    }
+
+    // Копие само със стойностите, които минават филтъра - така се "трие"
+    @SuppressWarnings("unchecked")
+    IntObjectMap<V> retain(Predicate<V> filter) {
+        IntObjectMap<V> result = new IntObjectMap<>(size);
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY && filter.test((V) values[i])) {
+                result.put(keys[i], (V) values[i]);
+            }
+        }
+        return result;
+    }
+
+    private int indexOf(int key) {
+        int index = (key * 0x9E3779B9) & mask;
+        while (keys[index] != EMPTY && keys[index] != key) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int index = indexOf(oldKeys[i]);
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        values = new Object[capacity];
+        mask = capacity - 1;
+    }
+}
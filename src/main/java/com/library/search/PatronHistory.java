@@ -0,0 +1,39 @@
+package com.library.search;
+
+// Последните заети книги на читател (кръгов буфер) и денят на последното заемане
+final class PatronHistory {
+
+    private final int[] books;
+    private int count;
+    private int next;
+    int lastDay;
+
+    PatronHistory(int capacity) {
+        books = new int[capacity];
+    }
+
+    boolean contains(int bookId) {
+        for (int i = 0; i < count; i++) {
+            if (books[i] == bookId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    int size() {
+        return count;
+    }
+
+    int get(int index) {
+        return books[index];
+    }
+
+    void add(int bookId) {
+        books[next] = bookId;
+        next = (next + 1) % books.length;
+        if (count < books.length) {
+            count++;
+        }
+    }
+}
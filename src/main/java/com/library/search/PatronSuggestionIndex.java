@@ -0,0 +1,161 @@
+package com.library.search;
+
+import com.library.datasource.DataSourceWorkload;
+import com.library.datasource.Workload;
+import com.library.dto.PatronSuggestion;
+import com.library.model.Patron;
+import com.library.repository.PatronRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// In-memory индекс за autocomplete по име, фамилия и email на читатели
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PatronSuggestionIndex {
+
+    private static final int LOAD_PAGE_SIZE = 1000;
+
+    private final PatronRepository patronRepository;
+
+    private final CompressedTrie trie = new CompressedTrie();
+    private final Map<Long, PatronSuggestion> entries = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Първоначално зареждане след старт на приложението
+    @EventListener(ApplicationReadyEvent.class)
+    @DataSourceWorkload(Workload.BATCH)
+    public void rebuild() {
+        log.info("Building patron suggestion index");
+        long started = System.currentTimeMillis();
+
+        lock.writeLock().lock();
+        try {
+            trie.clear();
+            entries.clear();
+
+            long lastId = 0L;
+            List<Patron> chunk;
+            do {
+                chunk = patronRepository.findByIdGreaterThanOrderByIdAsc(lastId, Limit.of(LOAD_PAGE_SIZE));
+                for (Patron patron : chunk) {
+                    put(toSuggestion(patron));
+                    lastId = patron.getId();
+                }
+            } while (chunk.size() == LOAD_PAGE_SIZE);
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        log.info("Patron suggestion index built with {} entries in {} ms",
+                entries.size(), System.currentTimeMillis() - started);
+    }
+
+    // Добавя или обновява читател; при активна транзакция - след commit
+    public void index(Patron patron) {
+        PatronSuggestion suggestion = toSuggestion(patron);
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                put(suggestion);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void remove(Long patronId) {
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                PatronSuggestion previous = entries.remove(patronId);
+                if (previous != null) {
+                    keysOf(previous).forEach(key -> trie.remove(key, patronId));
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public List<PatronSuggestion> suggest(String prefix, int limit) {
+        String normalized = normalize(prefix);
+        if (normalized.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Set<Long> ids = new LinkedHashSet<>();
+            trie.collect(normalized, limit, ids);
+
+            List<PatronSuggestion> result = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                result.add(entries.get(id));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Извиква се само под write lock
+    private void put(PatronSuggestion suggestion) {
+        PatronSuggestion previous = entries.put(suggestion.getId(), suggestion);
+        if (previous != null) {
+            keysOf(previous).forEach(key -> trie.remove(key, previous.getId()));
+        }
+        keysOf(suggestion).forEach(key -> trie.insert(key, suggestion.getId()));
+    }
+
+    private static List<String> keysOf(PatronSuggestion suggestion) {
+        return List.of(
+                normalize(suggestion.getFirstName()),
+                normalize(suggestion.getLastName()),
+                normalize(suggestion.getFullName()),
+                normalize(suggestion.getEmail()));
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static PatronSuggestion toSuggestion(Patron patron) {
+        return PatronSuggestion.builder()
+                .id(patron.getId())
+                .firstName(patron.getFirstName())
+                .lastName(patron.getLastName())
+                .fullName(patron.getFullName())
+                .email(patron.getEmail())
+                .status(patron.getStatus())
+                .build();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -1,25 +1,49 @@
 package com.library.service;
 
+import com.library.cache.NearCacheCoordinator;
+import com.library.cache.NegativeLookupCache;
+import com.library.cache.SingleFlightLoader;
+import com.library.datasource.DataSourceWorkload;
+import com.library.datasource.ReadYourWrites;
+import com.library.datasource.Workload;
+import com.library.dto.BatchResult;
+import com.library.dto.BookAvailability;
 import com.library.dto.BookDTO;
+import com.library.dto.BorrowingRecordDTO;
+import com.library.dto.RelatedBook;
 import com.library.dto.request.CreateBookRequest;
 import com.library.dto.request.UpdateBookRequest;
 import com.library.exception.BookAlreadyBorrowedException;
-import com.library.exception.ResourceNotFoundException;
+import com.library.exception.BookNotFoundException;
 import com.library.model.Book;
 import com.library.model.BookStatus;
-import com.library.model.BorrowingRecord;
+import com.library.repository.ArchivedBorrowingRecordRepository;
+import com.library.repository.BookBorrowCount;
 import com.library.repository.BookRepository;
 import com.library.repository.BorrowingRecordRepository;
+import com.library.repository.NaturalIdRepository;
+import com.library.repository.ProjectionRepository;
+import com.library.repository.ProjectionSpec;
+import com.library.search.CoOccurrenceIndex;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.caffeine.CaffeineCache;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -29,10 +53,21 @@ public class BookService {
 
     private final BookRepository bookRepository;
     private final BorrowingRecordRepository borrowingRecordRepository;
+    private final ArchivedBorrowingRecordRepository archivedBorrowingRecordRepository;
+    private final NaturalIdRepository naturalIdRepository;
+    private final NearCacheCoordinator nearCacheCoordinator;
+    private final SingleFlightLoader singleFlightLoader;
+    private final NegativeLookupCache negativeLookupCache;
+    private final ProjectionRepository projectionRepository;
+    private final CacheManager cacheManager;
+    private final BorrowingService borrowingService;
+    private final CatalogProjection catalogProjection;
+    private final CirculationEventOutbox circulationEventOutbox;
+    private final CoOccurrenceIndex coOccurrenceIndex;
 
     // CREATE
     @Transactional
-    @CacheEvict(value = "books", allEntries = true)
+    @CachePut(value = "books", key = "#result.id")
     public BookDTO createBook(CreateBookRequest request) {
         log.info("Creating new book: {}", request.getTitle());
         
@@ -52,6 +87,9 @@ public class BookService {
                 .build();
 
         Book savedBook = bookRepository.save(book);
+        catalogProjection.bookSaved(savedBook);
+        negativeLookupCache.forget("books", "id", savedBook.getId());
+        negativeLookupCache.forget("books", "isbn", savedBook.getIsbn());
         log.info("Book created successfully with ID: {}", savedBook.getId());
         
         return mapToDTO(savedBook);
@@ -65,13 +103,99 @@ public class BookService {
                 .map(this::mapToDTO);
     }
 
-    // READ - една книга по ID (с кеширане)
+    // READ - само избраните полета (?fields=); колоните се ограничават и в SQL заявката
     @Transactional(readOnly = true)
+    public Page<Map<String, Object>> getAllBooks(Pageable pageable, Set<String> fields) {
+        log.debug("Fetching books with fields {}, page: {}, size: {}", fields, pageable.getPageNumber(), pageable.getPageSize());
+        List<Map<String, Object>> content = projectionRepository.findAll(ProjectionSpec.BOOKS, fields, null,
+                pageable.getSort(), pageable.getOffset(), pageable.getPageSize());
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> projectionRepository.count(ProjectionSpec.BOOKS, null));
+    }
+
+    // READ - една книга по ID (с кеширане)
+    // Без @Transactional: чакащите при cache miss не трябва да държат връзка към базата
     @Cacheable(value = "books", key = "#id")
     public BookDTO getBookById(Long id) {
         log.debug("Fetching book with ID: {}", id);
-        Book book = findBookById(id);
-        return mapToDTO(book);
+        if (negativeLookupCache.isMissing("books", "id", id)) {
+            throw new BookNotFoundException(id);
+        }
+        // Пълни кеша - чете се от основната база, не от реплика
+        return singleFlightLoader.load("books", id,
+                () -> ReadYourWrites.onPrimary(() -> mapToDTO(findBookById(id))));
+    }
+
+    // READ - няколко книги наведнъж: попаденията идват от кеша с един multi-get,
+    // а липсващите - с една IN (...) заявка. Редът на id-тата се запазва.
+    public BatchResult<BookDTO> getBooksByIds(List<Long> ids) {
+        log.debug("Fetching {} books by ID", ids.size());
+        List<Long> distinctIds = ids.stream().distinct().toList();
+        Map<Long, BookDTO> found = new HashMap<>();
+
+        Cache cache = cacheManager.getCache("books");
+        if (cache instanceof CaffeineCache caffeineCache) {
+            caffeineCache.getNativeCache().getAllPresent(distinctIds)
+                    .forEach((key, value) -> found.put((Long) key, (BookDTO) value));
+        } else if (cache != null) {
+            distinctIds.forEach(id -> {
+                BookDTO cached = cache.get(id, BookDTO.class);
+                if (cached != null) {
+                    found.put(id, cached);
+                }
+            });
+        }
+
+        List<Long> misses = distinctIds.stream()
+                .filter(id -> !found.containsKey(id))
+                .filter(id -> !negativeLookupCache.isMissing("books", "id", id))
+                .toList();
+
+        if (!misses.isEmpty()) {
+            for (Book book : ReadYourWrites.onPrimary(() -> bookRepository.findAllById(misses))) {
+                BookDTO dto = mapToDTO(book);
+                found.put(book.getId(), dto);
+                if (cache != null) {
+                    cache.put(book.getId(), dto);
+                }
+            }
+            misses.stream()
+                    .filter(id -> !found.containsKey(id))
+                    .forEach(id -> negativeLookupCache.markMissing("books", "id", id));
+        }
+
+        List<BookDTO> items = new ArrayList<>(distinctIds.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : distinctIds) {
+            BookDTO dto = found.get(id);
+            if (dto != null) {
+                items.add(dto);
+            } else {
+                missingIds.add(id);
+            }
+        }
+
+        return BatchResult.<BookDTO>builder()
+                .items(items)
+                .missingIds(missingIds)
+                .build();
+    }
+
+    // READ - наличност на няколко книги (от същия кеширан multi-get)
+    public BatchResult<BookAvailability> getAvailability(List<Long> ids) {
+        BatchResult<BookDTO> books = getBooksByIds(ids);
+        List<BookAvailability> availability = books.getItems().stream()
+                .map(book -> BookAvailability.builder()
+                        .bookId(book.getId())
+                        .status(book.getStatus())
+                        .available(book.getStatus() == BookStatus.AVAILABLE)
+                        .build())
+                .toList();
+
+        return BatchResult.<BookAvailability>builder()
+                .items(availability)
+                .missingIds(books.getMissingIds())
+                .build();
     }
 
     // READ - търсене по заглавие
@@ -111,6 +235,7 @@ public class BookService {
         log.info("Updating book with ID: {}", id);
         
         Book book = findBookById(id);
+        BookStatus previousStatus = book.getStatus();
         
         // Проверка за ISBN само ако се променя
         if (request.getIsbn() != null && !request.getIsbn().equals(book.getIsbn())) {
@@ -118,6 +243,7 @@ public class BookService {
                 throw new IllegalArgumentException("Book with ISBN " + request.getIsbn() + " already exists");
             }
             book.setIsbn(request.getIsbn());
+            negativeLookupCache.forget("books", "isbn", request.getIsbn());
         }
 
         // Актуализиране само на непразни полета
@@ -128,7 +254,11 @@ public class BookService {
         if (request.getDescription() != null) book.setDescription(request.getDescription());
         if (request.getStatus() != null) book.setStatus(request.getStatus());
 
-        Book updatedBook = bookRepository.save(book);
+        // flush, за да е актуална @Version в DTO-то и в невалидирането
+        Book updatedBook = bookRepository.saveAndFlush(book);
+        catalogProjection.bookSaved(updatedBook);
+        circulationEventOutbox.statusChanged(updatedBook, previousStatus);
+        nearCacheCoordinator.invalidate("books", id, updatedBook.getVersion());
         log.info("Book updated successfully with ID: {}", updatedBook.getId());
         
         return mapToDTO(updatedBook);
@@ -141,9 +271,13 @@ public class BookService {
         log.info("Updating status of book ID: {} to {}", id, status);
         
         Book book = findBookById(id);
+        BookStatus previousStatus = book.getStatus();
         book.setStatus(status);
         
-        Book updatedBook = bookRepository.save(book);
+        Book updatedBook = bookRepository.saveAndFlush(book);
+        catalogProjection.bookSaved(updatedBook);
+        circulationEventOutbox.statusChanged(updatedBook, previousStatus);
+        nearCacheCoordinator.invalidate("books", id, updatedBook.getVersion());
         log.info("Book status updated successfully");
         
         return mapToDTO(updatedBook);
@@ -163,28 +297,67 @@ public class BookService {
         }
         
         bookRepository.delete(book);
+        catalogProjection.bookDeleted(id);
+        nearCacheCoordinator.invalidate("books", id, null);
         log.info("Book deleted successfully with ID: {}", id);
     }
 
     // READ - история на заеманията на книга
     @Transactional(readOnly = true)
-    public List<BorrowingRecord> getBookBorrowingHistory(Long bookId) {
+    public List<BorrowingRecordDTO> getBookBorrowingHistory(Long bookId) {
         log.debug("Fetching borrowing history for book ID: {}", bookId);
         findBookById(bookId); // Проверка дали книгата съществува
-        return borrowingRecordRepository.findByBookIdOrderByBorrowDateDesc(bookId);
+        // Включва и архивираните заемания (borrowing_records_archive)
+        return borrowingService.getBorrowingHistoryForBook(bookId);
     }
 
-    // READ - най-заемани книги
+    // READ - най-заемани книги, включително архивираните заемания.
+    // Броят се поотделно в двете таблици и се сумират тук - архивът няма връзка към books.
     @Transactional(readOnly = true)
+    @DataSourceWorkload(Workload.REPORTING)
     public List<Object[]> getMostBorrowedBooks(int limit) {
         log.debug("Fetching top {} most borrowed books", limit);
-        return bookRepository.findMostBorrowedBooks(limit);
+
+        Map<Long, Long> counts = new HashMap<>();
+        for (BookBorrowCount count : borrowingRecordRepository.countBorrowsByBook()) {
+            counts.merge(count.getBookId(), count.getBorrowCount(), Long::sum);
+        }
+        for (BookBorrowCount count : archivedBorrowingRecordRepository.countBorrowsByBook()) {
+            counts.merge(count.getBookId(), count.getBorrowCount(), Long::sum);
+        }
+
+        List<Map.Entry<Long, Long>> top = counts.entrySet().stream()
+                .sorted(Map.Entry.<Long, Long>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(Math.max(0, limit))
+                .toList();
+        Map<Long, Book> books = bookRepository.findAllById(top.stream().map(Map.Entry::getKey).toList())
+                .stream()
+                .collect(Collectors.toMap(Book::getId, book -> book));
+
+        // Изтрити книги остават само в архива - пропускат се, както при JOIN към books
+        List<Object[]> result = new ArrayList<>(top.size());
+        for (Map.Entry<Long, Long> entry : top) {
+            Book book = books.get(entry.getKey());
+            if (book != null) {
+                result.add(new Object[]{book, entry.getValue()});
+            }
+        }
+        return result;
+    }
+
+    // READ - "заелите тази книга заеха и..." - само от паметта, без заявка към базата
+    public List<RelatedBook> getRelatedBooks(Long id, int limit) {
+        return coOccurrenceIndex.related(id, limit);
     }
 
     // Helper метод
     private Book findBookById(Long id) {
         return bookRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Book not found with id: " + id));
+                .orElseThrow(() -> {
+                    negativeLookupCache.markMissing("books", "id", id);
+                    return new BookNotFoundException(id);
+                });
     }
 
     // Mapper метод
@@ -200,14 +373,24 @@ public class BookService {
                 .description(book.getDescription())
                 .createdAt(book.getCreatedAt())
                 .updatedAt(book.getUpdatedAt())
+                .version(book.getVersion())
                 .build();
     }
     // Добави този метод в BookService.java
 
     public BookDTO getBookByIsbn(String isbn) {
         log.debug("Fetching book with ISBN: {}", isbn);
-        Book book = bookRepository.findByIsbn(isbn)
-                .orElseThrow(() -> new ResourceNotFoundException("Book not found with ISBN: " + isbn));
-        return mapToDTO(book);
+        if (negativeLookupCache.isMissing("books", "isbn", isbn)) {
+            throw new BookNotFoundException(isbn);
+        }
+        return singleFlightLoader.load("books:isbn", isbn, () -> {
+            Book book = ReadYourWrites.onPrimary(
+                            () -> naturalIdRepository.findBySimpleNaturalId(Book.class, isbn))
+                    .orElseThrow(() -> {
+                        negativeLookupCache.markMissing("books", "isbn", isbn);
+                        return new BookNotFoundException(isbn);
+                    });
+            return mapToDTO(book);
+        });
 }
 }
\ No newline at end of file
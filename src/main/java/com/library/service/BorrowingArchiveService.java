@@ -0,0 +1,106 @@
+package com.library.service;
+
+import com.library.config.ArchiveProperties;
+import com.library.model.ArchivedBorrowingRecord;
+import com.library.model.BorrowingRecord;
+import com.library.repository.ArchivedBorrowingRecordRepository;
+import com.library.repository.BorrowingRecordRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Премества старите върнати заемания от borrowing_records в borrowing_records_archive,
+// за да остане живата таблица (отворени и скорошни заемания) малка и в буферния кеш.
+@Slf4j
+@Service
+@EnableConfigurationProperties(ArchiveProperties.class)
+public class BorrowingArchiveService {
+
+    private final BorrowingRecordRepository borrowingRecordRepository;
+    private final ArchivedBorrowingRecordRepository archivedBorrowingRecordRepository;
+    private final ArchiveProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter archived;
+
+    public BorrowingArchiveService(BorrowingRecordRepository borrowingRecordRepository,
+                                   ArchivedBorrowingRecordRepository archivedBorrowingRecordRepository,
+                                   ArchiveProperties properties,
+                                   PlatformTransactionManager transactionManager,
+                                   MeterRegistry meterRegistry) {
+        this.borrowingRecordRepository = borrowingRecordRepository;
+        this.archivedBorrowingRecordRepository = archivedBorrowingRecordRepository;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.archived = meterRegistry.counter("library.archive.records");
+    }
+
+    // SCHEDULED JOB - Архивиране всяка нощ в 2:30
+    @Scheduled(cron = "${library.archive.cron:0 30 2 * * *}")
+    public void archiveReturnedRecords() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        LocalDate cutoff = LocalDate.now().minus(properties.getMinAge());
+        log.info("Running scheduled job: Archiving borrowing records returned before {}", cutoff);
+
+        long total = 0;
+        int moved;
+        do {
+            // Всяка порция е в отделна транзакция
+            moved = transactionTemplate.execute(status -> archiveBatch(cutoff));
+            total += moved;
+        } while (moved == properties.getBatchSize());
+
+        log.info("Archived {} borrowing records", total);
+    }
+
+    // Задачата върви на всеки възел; SKIP LOCKED дава на всеки различна порция,
+    // вместо всички да вземат същите редове и да се сблъскат по PK в архива
+    private int archiveBatch(LocalDate cutoff) {
+        List<Long> ids = borrowingRecordRepository.lockReturnedBefore(cutoff, properties.getBatchSize());
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        List<BorrowingRecord> batch = borrowingRecordRepository.findByIdInOrderByIdAsc(ids);
+
+        LocalDateTime now = LocalDateTime.now();
+        archivedBorrowingRecordRepository.saveAll(batch.stream()
+                .map(record -> toArchived(record, now))
+                .toList());
+        borrowingRecordRepository.deleteAllByIdInBatch(batch.stream()
+                .map(BorrowingRecord::getId)
+                .toList());
+
+        archived.increment(batch.size());
+        return batch.size();
+    }
+
+    private static ArchivedBorrowingRecord toArchived(BorrowingRecord record, LocalDateTime archivedAt) {
+        return ArchivedBorrowingRecord.builder()
+                .id(record.getId())
+                .bookId(record.getBook().getId())
+                .bookTitle(record.getBook().getTitle())
+                .patronId(record.getPatron().getId())
+                .patronName(record.getPatron().getFullName())
+                .borrowDate(record.getBorrowDate())
+                .dueDate(record.getDueDate())
+                .returnDate(record.getReturnDate())
+                .actualReturnDate(record.getActualReturnDate())
+                .status(record.getStatus())
+                .lateFee(record.getLateFee())
+                .notes(record.getNotes())
+                .createdAt(record.getCreatedAt())
+                .archivedAt(archivedAt)
+                .build();
+    }
+}
@@ -1,44 +1,73 @@
 package com.library.service;
 
+import com.library.cache.NearCacheCoordinator;
+import com.library.datasource.DataSourceWorkload;
+import com.library.datasource.Workload;
 import com.library.dto.BorrowingRecordDTO;
 import com.library.exception.BookAlreadyBorrowedException;
+import com.library.exception.BookNotFoundException;
 import com.library.exception.InvalidBorrowingOperationException;
+import com.library.exception.PatronNotFoundException;
 import com.library.exception.ResourceNotFoundException;
 import com.library.model.*;
+import com.library.repository.ArchivedBorrowingRecordRepository;
 import com.library.repository.BookRepository;
 import com.library.repository.BorrowingRecordRepository;
 import com.library.repository.PatronRepository;
+import com.library.repository.ProjectionRepository;
+import com.library.repository.ProjectionSpec;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Sort;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.stream.Collectors;
 
 // Добави импорти най-отгоре
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class BorrowingService {
 
+    private static final String OPEN_LOAN_CONSTRAINT = "uk_borrowing_open_book";
+
     private final BorrowingRecordRepository borrowingRecordRepository;
     private final BookRepository bookRepository;
     private final PatronRepository patronRepository;
+    private final NearCacheCoordinator nearCacheCoordinator;
+    private final ProjectionRepository projectionRepository;
+    private final ArchivedBorrowingRecordRepository archivedBorrowingRecordRepository;
+    private final CatalogProjection catalogProjection;
+    private final CirculationEventOutbox circulationEventOutbox;
 
     // BORROW BOOK
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(value = "books", key = "#bookId"),
+            @CacheEvict(value = "patrons", key = "#patronId")
+    })
     public BorrowingRecordDTO borrowBook(Long bookId, Long patronId) {
         log.info("Borrowing book ID: {} for patron ID: {}", bookId, patronId);
 
         // Вземи книгата
         Book book = bookRepository.findById(bookId)
-                .orElseThrow(() -> new ResourceNotFoundException("Book not found with id: " + bookId));
+                .orElseThrow(() -> new BookNotFoundException(bookId));
 
         // Проверка дали книгата е налична
         if (book.getStatus() != BookStatus.AVAILABLE) {
@@ -47,7 +76,7 @@ public class BorrowingService {
 
         // Вземи читателя
         Patron patron = patronRepository.findById(patronId)
-                .orElseThrow(() -> new ResourceNotFoundException("Patron not found with id: " + patronId));
+                .orElseThrow(() -> new PatronNotFoundException(patronId));
 
         // Проверка дали читателят е активен
         if (patron.getStatus() != MembershipStatus.ACTIVE) {
@@ -77,9 +106,23 @@ public class BorrowingService {
         book.setStatus(BookStatus.BORROWED);
         patron.setTotalBooksBorrowed(patron.getTotalBooksBorrowed() + 1);
 
-        BorrowingRecord savedRecord = borrowingRecordRepository.save(record);
+        // flush веднага: uk_borrowing_open_book отхвърля второ отворено заемане при едновременни заявки
+        BorrowingRecord savedRecord;
+        try {
+            savedRecord = borrowingRecordRepository.saveAndFlush(record);
+        } catch (DataIntegrityViolationException ex) {
+            // Само второ отворено заемане на книгата е конфликт; другите нарушения се пробрасват
+            if (!isOpenLoanConflict(ex)) {
+                throw ex;
+            }
+            throw new BookAlreadyBorrowedException("Book is not available for borrowing");
+        }
         bookRepository.save(book);
         patronRepository.save(patron);
+        catalogProjection.bookBorrowed(savedRecord);
+        circulationEventOutbox.bookBorrowed(savedRecord);
+        nearCacheCoordinator.invalidate("books", bookId, null);
+        nearCacheCoordinator.invalidate("patrons", patronId, null);
 
         log.info("Book borrowed successfully. Record ID: {}", savedRecord.getId());
 
@@ -88,6 +131,7 @@ public class BorrowingService {
 
     // RETURN BOOK
     @Transactional
+    @CacheEvict(value = "books", key = "#bookId")
     public BorrowingRecordDTO returnBook(Long bookId, Long patronId) {
         log.info("Returning book ID: {} from patron ID: {}", bookId, patronId);
 
@@ -120,6 +164,9 @@ public class BorrowingService {
 
         BorrowingRecord savedRecord = borrowingRecordRepository.save(record);
         bookRepository.save(book);
+        catalogProjection.bookReturned(savedRecord);
+        circulationEventOutbox.bookReturned(savedRecord);
+        nearCacheCoordinator.invalidate("books", bookId, null);
 
         log.info("Book returned successfully. Record ID: {}", savedRecord.getId());
 
@@ -132,7 +179,7 @@ public class BorrowingService {
         log.debug("Fetching active borrowings for patron ID: {}", patronId);
         
         patronRepository.findById(patronId)
-                .orElseThrow(() -> new ResourceNotFoundException("Patron not found with id: " + patronId));
+                .orElseThrow(() -> new PatronNotFoundException(patronId));
 
         return borrowingRecordRepository.findByPatronIdAndReturnDateIsNull(patronId)
                 .stream()
@@ -146,12 +193,74 @@ public class BorrowingService {
         log.debug("Fetching borrowing history for patron ID: {}", patronId);
         
         patronRepository.findById(patronId)
-                .orElseThrow(() -> new ResourceNotFoundException("Patron not found with id: " + patronId));
+                .orElseThrow(() -> new PatronNotFoundException(patronId));
 
-        return borrowingRecordRepository.findByPatronIdOrderByBorrowDateDesc(patronId)
-                .stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+        return mergeHistory(
+                borrowingRecordRepository.findByPatronIdOrderByBorrowDateDesc(patronId),
+                archivedBorrowingRecordRepository.findByPatronIdOrderByBorrowDateDesc(patronId));
+    }
+
+    // GET BORROWING HISTORY FOR BOOK
+    @Transactional(readOnly = true)
+    public List<BorrowingRecordDTO> getBorrowingHistoryForBook(Long bookId) {
+        log.debug("Fetching borrowing history for book ID: {}", bookId);
+
+        return mergeHistory(
+                borrowingRecordRepository.findByBookIdOrderByBorrowDateDesc(bookId),
+                archivedBorrowingRecordRepository.findByBookIdOrderByBorrowDateDesc(bookId));
+    }
+
+    // GET ACTIVE / HISTORY / OVERDUE - само избраните полета (?fields=)
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getActiveBorrowingsForPatron(Long patronId, Set<String> fields) {
+        ensurePatronExists(patronId);
+        return projectionRepository.findAll(ProjectionSpec.BORROWING_RECORDS, fields,
+                (root, cb) -> cb.and(
+                        cb.equal(root.get("patron").get("id"), patronId),
+                        cb.isNull(root.get("returnDate"))),
+                Sort.by("id"), 0, 0);
+    }
+
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getBorrowingHistoryForPatron(Long patronId, Set<String> fields) {
+        ensurePatronExists(patronId);
+
+        // borrowDate е нужна за сливането на живата и архивната таблица
+        Set<String> selected = new LinkedHashSet<>(fields);
+        boolean sortKeyAdded = selected.add("borrowDate");
+        Sort sort = Sort.by(Sort.Direction.DESC, "borrowDate");
+
+        List<Map<String, Object>> rows = new ArrayList<>(projectionRepository.findAll(
+                ProjectionSpec.BORROWING_RECORDS, selected,
+                (root, cb) -> cb.equal(root.get("patron").get("id"), patronId),
+                sort, 0, 0));
+        rows.addAll(projectionRepository.findAll(
+                ProjectionSpec.ARCHIVED_BORROWING_RECORDS, selected,
+                (root, cb) -> cb.equal(root.get("patronId"), patronId),
+                sort, 0, 0));
+
+        rows.sort(Comparator.comparing((Map<String, Object> row) -> (LocalDate) row.get("borrowDate")).reversed());
+        if (sortKeyAdded) {
+            rows.forEach(row -> row.remove("borrowDate"));
+        }
+        return rows;
+    }
+
+    @Transactional(readOnly = true)
+    @DataSourceWorkload(Workload.REPORTING)
+    public List<Map<String, Object>> getOverdueBorrowings(Set<String> fields) {
+        LocalDate today = LocalDate.now();
+        return projectionRepository.findAll(ProjectionSpec.BORROWING_RECORDS, fields,
+                (root, cb) -> cb.and(
+                        cb.isNull(root.get("returnDate")),
+                        cb.lessThan(root.<LocalDate>get("dueDate"), today)),
+                Sort.by("dueDate"), 0, 0);
+    }
+
+    private void ensurePatronExists(Long patronId) {
+        if (!patronRepository.existsById(patronId)) {
+            throw new PatronNotFoundException(patronId);
+        }
     }
 
     // GET CURRENT BORROWER OF BOOK
@@ -172,6 +281,7 @@ public class BorrowingService {
 
     // GET ALL OVERDUE BORROWINGS
     @Transactional(readOnly = true)
+    @DataSourceWorkload(Workload.REPORTING)
     public List<BorrowingRecordDTO> getOverdueBorrowings() {
         log.debug("Fetching all overdue borrowings");
         
@@ -221,6 +331,46 @@ public class BorrowingService {
         }
     }
 
+    // uk_borrowing_open_book (V4 / schema-h2.sql). Името идва от Hibernate, а ако драйверът
+    // не го даде - от съобщението на базата (H2 го връща с главни букви и суфикс)
+    private static boolean isOpenLoanConflict(DataIntegrityViolationException ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            String text = cause instanceof ConstraintViolationException violation
+                    && violation.getConstraintName() != null
+                    ? violation.getConstraintName()
+                    : cause.getMessage();
+            if (text != null && text.toLowerCase(Locale.ROOT).contains(OPEN_LOAN_CONSTRAINT)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Живите и архивните записи в общ списък, най-новите първи
+    private List<BorrowingRecordDTO> mergeHistory(List<BorrowingRecord> live, List<ArchivedBorrowingRecord> archived) {
+        List<BorrowingRecordDTO> history = new ArrayList<>(live.size() + archived.size());
+        live.forEach(record -> history.add(mapToDTO(record)));
+        archived.forEach(record -> history.add(mapToDTO(record)));
+        history.sort(Comparator.comparing(BorrowingRecordDTO::getBorrowDate).reversed());
+        return history;
+    }
+
+    private BorrowingRecordDTO mapToDTO(ArchivedBorrowingRecord record) {
+        return BorrowingRecordDTO.builder()
+                .id(record.getId())
+                .bookId(record.getBookId())
+                .bookTitle(record.getBookTitle())
+                .patronId(record.getPatronId())
+                .patronName(record.getPatronName())
+                .borrowDate(record.getBorrowDate())
+                .dueDate(record.getDueDate())
+                .returnDate(record.getReturnDate())
+                .status(record.getStatus())
+                .lateFee(record.getLateFee())
+                .isOverdue(false)
+                .build();
+    }
+
     // Helper mapper method
     private BorrowingRecordDTO mapToDTO(BorrowingRecord record) {
         return BorrowingRecordDTO.builder()
@@ -259,19 +409,26 @@ public BorrowingRecordDTO extendBorrowing(Long recordId, int days) {
     record.setStatus(BorrowingStatus.EXTENDED);
     
     BorrowingRecord savedRecord = borrowingRecordRepository.save(record);
+    catalogProjection.loanExtended(savedRecord);
+    circulationEventOutbox.loanExtended(savedRecord);
     log.info("Borrowing extended successfully. New due date: {}", savedRecord.getDueDate());
     
     return mapToDTO(savedRecord);
 }
 
+@DataSourceWorkload(Workload.REPORTING)
 public Map<String, Object> getDailyBorrowingStats() {
     log.debug("Fetching daily borrowing statistics");
     
     LocalDate today = LocalDate.now();
     
     // Тези методи трябва да ги добавиш в BorrowingRecordRepository
-    long borrowedToday = borrowingRecordRepository.countByBorrowDate(today);
-    long returnedToday = borrowingRecordRepository.countByReturnDate(today);
+    // Архивът се включва за заеманията/връщанията (при малък library.archive.min-age);
+    // отворените заемания никога не се архивират
+    long borrowedToday = borrowingRecordRepository.countByBorrowDate(today)
+            + archivedBorrowingRecordRepository.countByBorrowDate(today);
+    long returnedToday = borrowingRecordRepository.countByReturnDate(today)
+            + archivedBorrowingRecordRepository.countByReturnDate(today);
     long overdue = borrowingRecordRepository.countByReturnDateIsNullAndDueDateBefore(today);
     long activeBorrowings = borrowingRecordRepository.countByReturnDateIsNull();
     
@@ -0,0 +1,154 @@
+package com.library.service;
+
+import com.library.model.Book;
+import com.library.model.BookStatus;
+import com.library.model.BorrowingRecord;
+import com.library.model.CatalogEntry;
+import com.library.repository.BookBorrowCount;
+import com.library.repository.ArchivedBorrowingRecordRepository;
+import com.library.repository.BookRepository;
+import com.library.repository.BorrowingRecordRepository;
+import com.library.repository.CatalogEntryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Поддържа catalog_view. Вика се от пишещите методи на BookService и BorrowingService
+// в тяхната транзакция (MANDATORY), така че read моделът никога не изостава от books.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@Transactional(propagation = Propagation.MANDATORY)
+public class CatalogProjection {
+
+    private final CatalogEntryRepository catalogEntryRepository;
+    private final BookRepository bookRepository;
+    private final BorrowingRecordRepository borrowingRecordRepository;
+    private final ArchivedBorrowingRecordRepository archivedBorrowingRecordRepository;
+
+    // Нова книга или промяна на полетата/статуса ѝ
+    public void bookSaved(Book book) {
+        lockBook(book.getId());
+        CatalogEntry entry = entryFor(book);
+        copyBookFields(book, entry);
+        catalogEntryRepository.save(entry);
+    }
+
+    public void bookDeleted(Long bookId) {
+        lockBook(bookId);
+        catalogEntryRepository.findById(bookId).ifPresent(catalogEntryRepository::delete);
+    }
+
+    public void bookBorrowed(BorrowingRecord record) {
+        Book book = record.getBook();
+        lockBook(book.getId());
+        CatalogEntry entry = entryFor(book);
+        copyBookFields(book, entry);
+        entry.setCurrentPatronId(record.getPatron().getId());
+        entry.setCurrentDueDate(record.getDueDate());
+        if (!entry.isNew()) {
+            entry.setBorrowCount(entry.getBorrowCount() + 1);
+        }
+        catalogEntryRepository.save(entry);
+    }
+
+    public void bookReturned(BorrowingRecord record) {
+        Book book = record.getBook();
+        lockBook(book.getId());
+        CatalogEntry entry = entryFor(book);
+        copyBookFields(book, entry);
+        entry.setCurrentPatronId(null);
+        entry.setCurrentDueDate(null);
+        catalogEntryRepository.save(entry);
+    }
+
+    public void loanExtended(BorrowingRecord record) {
+        lockBook(record.getBook().getId());
+        CatalogEntry entry = entryFor(record.getBook());
+        entry.setCurrentDueDate(record.getDueDate());
+        entry.setUpdatedAt(LocalDateTime.now());
+        catalogEntryRepository.save(entry);
+    }
+
+    // Преизгражда редовете за книгите с id в (afterId, lastId] - липсващите се създават,
+    // останалите се презаписват, а редове на вече изтрити книги се махат.
+    // Книгите са заключени FOR SHARE (BookRepository.findPageForShare), така че порцията
+    // и пишещите методи (lockBook) не се застъпват за една книга.
+    public void rebuild(List<Book> books, Long afterId, Long lastId) {
+        List<Long> bookIds = books.stream().map(Book::getId).toList();
+
+        Map<Long, Long> borrowCounts = new HashMap<>();
+        for (BookBorrowCount count : borrowingRecordRepository.countBorrowsByBookIds(bookIds)) {
+            borrowCounts.merge(count.getBookId(), count.getBorrowCount(), Long::sum);
+        }
+        for (BookBorrowCount count : archivedBorrowingRecordRepository.countBorrowsByBookIds(bookIds)) {
+            borrowCounts.merge(count.getBookId(), count.getBorrowCount(), Long::sum);
+        }
+        Map<Long, BorrowingRecord> openLoans = borrowingRecordRepository.findByBookIdInAndReturnDateIsNull(bookIds)
+                .stream()
+                .collect(Collectors.toMap(open -> open.getBook().getId(), Function.identity()));
+
+        Map<Long, CatalogEntry> existing = catalogEntryRepository
+                .findByBookIdGreaterThanAndBookIdLessThanEqual(afterId, lastId)
+                .stream()
+                .collect(Collectors.toMap(CatalogEntry::getBookId, Function.identity()));
+
+        for (Book book : books) {
+            CatalogEntry entry = existing.remove(book.getId());
+            if (entry == null) {
+                entry = CatalogEntry.builder().bookId(book.getId()).build();
+            }
+            copyBookFields(book, entry);
+            entry.setBorrowCount(borrowCounts.getOrDefault(book.getId(), 0L));
+            BorrowingRecord open = openLoans.get(book.getId());
+            entry.setCurrentPatronId(open != null ? open.getPatron().getId() : null);
+            entry.setCurrentDueDate(open != null ? open.getDueDate() : null);
+            catalogEntryRepository.save(entry);
+        }
+        catalogEntryRepository.deleteAll(existing.values());
+    }
+
+    // Книги отпреди read модела (напр. H2 без миграции) получават ред при първата промяна.
+    // Броят включва вече записаното текущо заемане - затова bookBorrowed не брои нов ред отново.
+    private CatalogEntry entryFor(Book book) {
+        return catalogEntryRepository.findById(book.getId()).orElseGet(() -> {
+            log.debug("Creating missing catalog entry for book ID: {}", book.getId());
+            CatalogEntry entry = CatalogEntry.builder()
+                    .bookId(book.getId())
+                    .borrowCount(borrowingRecordRepository.countByBookId(book.getId())
+                            + archivedBorrowingRecordRepository.countByBookId(book.getId()))
+                    .build();
+            borrowingRecordRepository.findByBookIdAndReturnDateIsNull(book.getId()).ifPresent(open -> {
+                entry.setCurrentPatronId(open.getPatron().getId());
+                entry.setCurrentDueDate(open.getDueDate());
+            });
+            return entry;
+        });
+    }
+
+    // Редът на книгата се заключва преди четенето на catalog_view - така промяната
+    // изчаква порцията на CatalogRebuilder, която чете същата книга
+    private void lockBook(Long bookId) {
+        bookRepository.findForUpdate(bookId);
+    }
+
+    private static void copyBookFields(Book book, CatalogEntry entry) {
+        entry.setIsbn(book.getIsbn());
+        entry.setTitle(book.getTitle());
+        entry.setAuthor(book.getAuthor());
+        entry.setPublisher(book.getPublisher());
+        entry.setPublicationYear(book.getPublicationYear());
+        entry.setStatus(book.getStatus());
+        entry.setAvailable(book.getStatus() == BookStatus.AVAILABLE);
+        entry.setUpdatedAt(LocalDateTime.now());
+    }
+}
@@ -0,0 +1,84 @@
+package com.library.service;
+
+import com.library.datasource.DataSourceWorkload;
+import com.library.datasource.Workload;
+import com.library.model.Book;
+import com.library.repository.BookRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Попълва catalog_view от books при старт и при поискване. Покрива книгите, които
+// не са минали през CatalogProjection: вмъкнати от sql-init, всички книги в H2
+// (без миграцията V5) и книги, непроменяни след създаването на read модела.
+@Slf4j
+@Component
+public class CatalogRebuilder {
+
+    private static final int PAGE_SIZE = 500;
+
+    private final BookRepository bookRepository;
+    private final CatalogProjection catalogProjection;
+    private final TransactionTemplate transactionTemplate;
+
+    // Едно преизграждане наведнъж
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public CatalogRebuilder(BookRepository bookRepository,
+                            CatalogProjection catalogProjection,
+                            PlatformTransactionManager transactionManager) {
+        this.bookRepository = bookRepository;
+        this.catalogProjection = catalogProjection;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @DataSourceWorkload(Workload.BATCH)
+    public void rebuildOnStartup() {
+        rebuild();
+    }
+
+    @DataSourceWorkload(Workload.BATCH)
+    public int rebuild() {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("A catalog rebuild is already running");
+        }
+        try {
+            log.info("Rebuilding catalog_view");
+            long started = System.currentTimeMillis();
+
+            int total = 0;
+            long lastId = 0L;
+            int loaded;
+            do {
+                // Всяка порция е в отделна транзакция; книгите се четат в нея със заключване,
+                // така че едновременна промяна не се презаписва със старо състояние
+                long afterId = lastId;
+                List<Book> chunk = transactionTemplate.execute(status -> {
+                    List<Book> books = bookRepository.findPageForShare(afterId, Limit.of(PAGE_SIZE));
+                    // Последната порция покрива и редовете след последната книга
+                    long upperId = books.size() == PAGE_SIZE ? books.get(books.size() - 1).getId() : Long.MAX_VALUE;
+                    catalogProjection.rebuild(books, afterId, upperId);
+                    return books;
+                });
+                loaded = chunk.size();
+                total += loaded;
+                if (loaded > 0) {
+                    lastId = chunk.get(loaded - 1).getId();
+                }
+            } while (loaded == PAGE_SIZE);
+
+            log.info("Rebuilt catalog_view with {} entries in {} ms", total, System.currentTimeMillis() - started);
+            return total;
+        } finally {
+            running.set(false);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.library.service;
+
+import com.library.dto.CatalogEntryDTO;
+import com.library.exception.BookNotFoundException;
+import com.library.model.CatalogEntry;
+import com.library.repository.CatalogEntryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Четене на каталога само от catalog_view (виж CatalogProjection)
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class CatalogService {
+
+    private final CatalogEntryRepository catalogEntryRepository;
+
+    // available == null - всички книги
+    public Page<CatalogEntryDTO> getCatalog(Boolean available, Pageable pageable) {
+        log.debug("Fetching catalog, available: {}, page: {}", available, pageable.getPageNumber());
+        Page<CatalogEntry> entries = available == null
+                ? catalogEntryRepository.findAll(pageable)
+                : catalogEntryRepository.findByAvailable(available, pageable);
+        return entries.map(this::mapToDTO);
+    }
+
+    public CatalogEntryDTO getEntry(Long bookId) {
+        return catalogEntryRepository.findById(bookId)
+                .map(this::mapToDTO)
+                .orElseThrow(() -> new BookNotFoundException(bookId));
+    }
+
+    public Page<CatalogEntryDTO> searchByTitle(String title, Pageable pageable) {
+        return catalogEntryRepository.findByTitleStartingWithIgnoreCase(title, pageable).map(this::mapToDTO);
+    }
+
+    public Page<CatalogEntryDTO> searchByAuthor(String author, Pageable pageable) {
+        return catalogEntryRepository.findByAuthorStartingWithIgnoreCase(author, pageable).map(this::mapToDTO);
+    }
+
+    public List<CatalogEntryDTO> getOverdue() {
+        return catalogEntryRepository.findByCurrentDueDateBeforeOrderByCurrentDueDateAsc(LocalDate.now())
+                .stream()
+                .map(this::mapToDTO)
+                .toList();
+    }
+
+    private CatalogEntryDTO mapToDTO(CatalogEntry entry) {
+        return CatalogEntryDTO.builder()
+                .bookId(entry.getBookId())
+                .isbn(entry.getIsbn())
+                .title(entry.getTitle())
+                .author(entry.getAuthor())
+                .publisher(entry.getPublisher())
+                .publicationYear(entry.getPublicationYear())
+                .status(entry.getStatus())
+                .available(entry.isAvailable())
+                .currentPatronId(entry.getCurrentPatronId())
+                .currentDueDate(entry.getCurrentDueDate())
+                .borrowCount(entry.getBorrowCount())
+                .build();
+    }
+}
@@ -0,0 +1,90 @@
+package com.library.service;
+
+import com.library.dto.CirculationEventDTO;
+import com.library.dto.EventBatch;
+import com.library.exception.EventCursorExpiredException;
+import com.library.model.CirculationEvent;
+import com.library.model.CirculationFeedState;
+import com.library.repository.CirculationEventRepository;
+import com.library.repository.CirculationFeedStateRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+// Четене на feed-а по курсор. Сървърът не пази състояние за консуматорите:
+// всеки подава последната обработена позиция, така че при срив получава
+// същите събития отново (at-least-once), но никога не пропуска - курсор отпреди
+// изтритите от purge-а събития получава EventCursorExpiredException (410).
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CirculationEventFeed {
+
+    private final CirculationEventRepository circulationEventRepository;
+    private final CirculationFeedStateRepository feedStateRepository;
+
+    // REPEATABLE_READ - страницата и проверката за изтрити събития са от един snapshot
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public EventBatch readAfter(long after, int limit) {
+        log.debug("Reading circulation events after {} (limit {})", after, limit);
+
+        // Един ред повече, за да се знае дали има още
+        List<CirculationEvent> events = circulationEventRepository
+                .findByPositionGreaterThanOrderByPositionAsc(after, Limit.of(limit + 1));
+        // Позициите са последователни - дупка след курсора означава изтрити събития
+        if (events.isEmpty() || events.get(0).getPosition() > after + 1) {
+            long firstRetained = firstRetainedPosition();
+            if (after + 1 < firstRetained) {
+                throw new EventCursorExpiredException(after, firstRetained);
+            }
+        }
+        boolean hasMore = events.size() > limit;
+        List<CirculationEventDTO> page = events.stream()
+                .limit(limit)
+                .map(this::mapToDTO)
+                .toList();
+
+        return EventBatch.builder()
+                .events(page)
+                .nextCursor(page.isEmpty() ? after : page.get(page.size() - 1).getPosition())
+                .hasMore(hasMore)
+                .build();
+    }
+
+    // Позиция, от която нов консуматор да започне, ако вече има пълно копие на данните
+    @Transactional(readOnly = true)
+    public long lastPosition() {
+        return circulationEventRepository.findLastPosition();
+    }
+
+    // Без запазени събития - следващата позиция, която ще бъде раздадена
+    private long firstRetainedPosition() {
+        Long first = circulationEventRepository.findFirstPosition();
+        if (first != null) {
+            return first;
+        }
+        return feedStateRepository.findById(CirculationFeedState.SINGLETON_ID)
+                .map(state -> state.getLastPosition() + 1)
+                .orElse(1L);
+    }
+
+    private CirculationEventDTO mapToDTO(CirculationEvent event) {
+        return CirculationEventDTO.builder()
+                .position(event.getPosition())
+                .type(event.getType())
+                .bookId(event.getBookId())
+                .patronId(event.getPatronId())
+                .borrowingRecordId(event.getBorrowingRecordId())
+                .dueDate(event.getDueDate())
+                .bookStatus(event.getBookStatus())
+                .previousStatus(event.getPreviousStatus())
+                .lateFee(event.getLateFee())
+                .occurredAt(event.getOccurredAt())
+                .build();
+    }
+}
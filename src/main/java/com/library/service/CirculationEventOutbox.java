@@ -0,0 +1,64 @@
+package com.library.service;
+
+import com.library.model.Book;
+import com.library.model.BookStatus;
+import com.library.model.BorrowingRecord;
+import com.library.model.CirculationEvent;
+import com.library.model.CirculationEventType;
+import com.library.repository.CirculationEventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+// Записва събитията в circulation_events в транзакцията на самата промяна:
+// при rollback изчезват и те, а при commit не могат да се загубят.
+@Component
+@RequiredArgsConstructor
+@Transactional(propagation = Propagation.MANDATORY)
+public class CirculationEventOutbox {
+
+    private final CirculationEventRepository circulationEventRepository;
+
+    public void bookBorrowed(BorrowingRecord record) {
+        circulationEventRepository.save(loanEvent(CirculationEventType.BOOK_BORROWED, record));
+    }
+
+    public void bookReturned(BorrowingRecord record) {
+        CirculationEvent event = loanEvent(CirculationEventType.BOOK_RETURNED, record);
+        event.setLateFee(record.getLateFee());
+        circulationEventRepository.save(event);
+    }
+
+    public void loanExtended(BorrowingRecord record) {
+        circulationEventRepository.save(loanEvent(CirculationEventType.LOAN_EXTENDED, record));
+    }
+
+    // Ръчна промяна на статуса (заемане/връщане си имат собствени събития)
+    public void statusChanged(Book book, BookStatus previousStatus) {
+        if (book.getStatus() == previousStatus) {
+            return;
+        }
+        circulationEventRepository.save(CirculationEvent.builder()
+                .type(CirculationEventType.STATUS_CHANGED)
+                .bookId(book.getId())
+                .bookStatus(book.getStatus())
+                .previousStatus(previousStatus)
+                .occurredAt(LocalDateTime.now())
+                .build());
+    }
+
+    private static CirculationEvent loanEvent(CirculationEventType type, BorrowingRecord record) {
+        return CirculationEvent.builder()
+                .type(type)
+                .bookId(record.getBook().getId())
+                .patronId(record.getPatron().getId())
+                .borrowingRecordId(record.getId())
+                .dueDate(record.getDueDate())
+                .bookStatus(record.getBook().getStatus())
+                .occurredAt(LocalDateTime.now())
+                .build();
+    }
+}
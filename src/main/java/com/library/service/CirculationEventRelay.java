@@ -0,0 +1,104 @@
+package com.library.service;
+
+import com.library.config.EventFeedProperties;
+import com.library.model.CirculationEvent;
+import com.library.model.CirculationFeedState;
+import com.library.repository.CirculationEventRepository;
+import com.library.repository.CirculationFeedStateRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Дава поредни позиции на записаните (commit-нати) събития от outbox-а.
+// id-тата от sequence не стигат: транзакция с по-малко id може да приключи по-късно
+// и консуматор, минал курсора, би я пропуснал. Позициите се дават само на видими
+// събития и под заключване, затова растат в реда на commit-ите.
+@Slf4j
+@Service
+@EnableConfigurationProperties(EventFeedProperties.class)
+public class CirculationEventRelay {
+
+    private final CirculationEventRepository circulationEventRepository;
+    private final CirculationFeedStateRepository feedStateRepository;
+    private final EventFeedProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter relayed;
+
+    public CirculationEventRelay(CirculationEventRepository circulationEventRepository,
+                                 CirculationFeedStateRepository feedStateRepository,
+                                 EventFeedProperties properties,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry) {
+        this.circulationEventRepository = circulationEventRepository;
+        this.feedStateRepository = feedStateRepository;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.relayed = meterRegistry.counter("library.events.relayed");
+    }
+
+    @Scheduled(fixedDelayString = "${library.events.relay-interval-ms:500}")
+    public void relay() {
+        int published;
+        do {
+            published = transactionTemplate.execute(status -> publishBatch());
+        } while (published == properties.getRelayBatchSize());
+    }
+
+    // SCHEDULED JOB - изтриване на старите публикувани събития всяка нощ в 3:15
+    @Scheduled(cron = "${library.events.purge-cron:0 15 3 * * *}")
+    public void purgePublished() {
+        LocalDateTime cutoff = LocalDate.now().minus(properties.getRetention()).atStartOfDay();
+        Integer deleted = transactionTemplate.execute(status -> {
+            // Събитие може да е записано по-рано, но номерирано след по-ново - спираме
+            // на първото запазено, за да не остане дупка, която feed-ът да сметне за изтрита.
+            // Позициите, раздадени след прочитането на състоянието, са по-големи.
+            long nextPosition = feedStateRepository.findById(CirculationFeedState.SINGLETON_ID)
+                    .map(state -> state.getLastPosition() + 1)
+                    .orElse(1L);
+            Long firstKept = circulationEventRepository.findFirstPositionSince(cutoff);
+            return circulationEventRepository.deletePublishedBefore(
+                    firstKept != null ? Math.min(firstKept, nextPosition) : nextPosition);
+        });
+        log.info("Purged {} circulation events published before {}", deleted, cutoff);
+    }
+
+    private int publishBatch() {
+        CirculationFeedState state = lockState();
+        List<CirculationEvent> pending = circulationEventRepository
+                .findByPositionIsNullOrderByIdAsc(Limit.of(properties.getRelayBatchSize()));
+        if (pending.isEmpty()) {
+            return 0;
+        }
+
+        long position = state.getLastPosition();
+        for (CirculationEvent event : pending) {
+            event.setPosition(++position);
+        }
+        state.setLastPosition(position);
+        state.setUpdatedAt(LocalDateTime.now());
+
+        relayed.increment(pending.size());
+        log.debug("Relayed {} circulation events up to position {}", pending.size(), position);
+        return pending.size();
+    }
+
+    // Редът се създава от миграцията; в H2 (без миграции) - при първото изпълнение
+    private CirculationFeedState lockState() {
+        return feedStateRepository.findForUpdate(CirculationFeedState.SINGLETON_ID)
+                .orElseGet(() -> feedStateRepository.saveAndFlush(CirculationFeedState.builder()
+                        .id(CirculationFeedState.SINGLETON_ID)
+                        .lastPosition(0)
+                        .updatedAt(LocalDateTime.now())
+                        .build()));
+    }
+}
@@ -0,0 +1,168 @@
+package com.library.service;
+
+import com.library.config.RollupProperties;
+import com.library.dto.CirculationStats;
+import com.library.dto.StatsGranularity;
+import com.library.model.DailyCirculationRollup;
+import com.library.repository.DailyCirculationRollupRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Дневни обобщения на заеманията: затваряне на деня, backfill за минали дати
+// и справки за период, които четат само daily_circulation_rollups.
+@Slf4j
+@Service
+@EnableConfigurationProperties(RollupProperties.class)
+public class CirculationRollupService {
+
+    // maximumPoolSize по подразбиране на Hikari
+    private static final int DEFAULT_POOL_SIZE = 10;
+
+    private final DailyRollupCalculator calculator;
+    private final DailyCirculationRollupRepository rollupRepository;
+    private final RollupProperties properties;
+    private final ExecutorService backfillPool;
+
+    // Един backfill наведнъж
+    private final AtomicBoolean backfillRunning = new AtomicBoolean();
+
+    public CirculationRollupService(DailyRollupCalculator calculator,
+                                    DailyCirculationRollupRepository rollupRepository,
+                                    RollupProperties properties,
+                                    Environment environment) {
+        this.calculator = calculator;
+        this.rollupRepository = rollupRepository;
+        this.properties = properties;
+
+        // Един BATCH connection остава свободен за затварянето на деня и другите планирани задачи
+        int batchPoolSize = environment.getProperty(
+                "library.datasource.batch.maximum-pool-size", Integer.class, DEFAULT_POOL_SIZE);
+        int parallelism = Math.max(1, Math.min(properties.getBackfillParallelism(), batchPoolSize - 1));
+        if (parallelism < properties.getBackfillParallelism()) {
+            log.warn("Rollup backfill parallelism {} capped to {} (batch pool size {})",
+                    properties.getBackfillParallelism(), parallelism, batchPoolSize);
+        }
+        AtomicInteger threads = new AtomicInteger();
+        this.backfillPool = Executors.newFixedThreadPool(parallelism, task -> {
+            Thread thread = new Thread(task, "rollup-backfill-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // SCHEDULED JOB - затваряне на вчерашния ден всяка нощ в 0:05.
+    // Ако някоя нощ е пропусната, се наваксва от деня след последното обобщение.
+    @Scheduled(cron = "${library.rollups.cron:0 5 0 * * *}")
+    public void closeDay() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        LocalDate earliest = yesterday.minusDays(properties.getMaxCatchUpDays() - 1L);
+        LocalDate from = rollupRepository.findTopByOrderByDayDesc()
+                .map(last -> max(last.getDay().plusDays(1), earliest))
+                .orElse(yesterday);
+        if (from.isAfter(yesterday)) {
+            return;
+        }
+        for (LocalDate day = from; !day.isAfter(yesterday); day = day.plusDays(1)) {
+            calculator.rollUp(day);
+        }
+        log.info("Closed circulation days {} to {}", from, yesterday);
+    }
+
+    // Пресмята (или преизчислява) дните от from до to паралелно; връща броя им веднага.
+    // Днешният ден не се пресмята - той още не е затворен.
+    public int backfill(LocalDate from, LocalDate to) {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        if (to.isAfter(yesterday)) {
+            throw new IllegalArgumentException("Backfill can only cover closed days (up to " + yesterday + ")");
+        }
+        int days = validateRange(from, to);
+        if (!backfillRunning.compareAndSet(false, true)) {
+            throw new IllegalStateException("A rollup backfill is already running");
+        }
+
+        log.info("Starting circulation rollup backfill for {} to {} ({} days)", from, to, days);
+        long started = System.currentTimeMillis();
+        List<CompletableFuture<DailyCirculationRollup>> tasks = new ArrayList<>(days);
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            LocalDate current = day;
+            tasks.add(CompletableFuture.supplyAsync(() -> calculator.rollUp(current), backfillPool));
+        }
+        CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new))
+                .whenComplete((ignored, error) -> {
+                    backfillRunning.set(false);
+                    if (error != null) {
+                        log.error("Circulation rollup backfill for {} to {} failed", from, to, error);
+                    } else {
+                        log.info("Circulation rollup backfill for {} to {} completed in {} ms",
+                                from, to, System.currentTimeMillis() - started);
+                    }
+                });
+        return days;
+    }
+
+    // Сумите са за периода; activeLoans е стойността в края на последния ден с обобщение
+    @Transactional(readOnly = true)
+    public List<CirculationStats> getStats(LocalDate from, LocalDate to, StatsGranularity granularity) {
+        validateRange(from, to);
+
+        List<CirculationStats> result = new ArrayList<>();
+        CirculationStats current = null;
+        for (DailyCirculationRollup rollup : rollupRepository.findByDayBetweenOrderByDayAsc(from, to)) {
+            LocalDate periodStart = granularity.periodStart(rollup.getDay());
+            if (current == null || !current.getPeriodStart().equals(max(periodStart, from))) {
+                current = CirculationStats.builder()
+                        .periodStart(max(periodStart, from))
+                        .periodEnd(min(granularity.periodEnd(periodStart), to))
+                        .build();
+                result.add(current);
+            }
+            current.setDays(current.getDays() + 1);
+            current.setBorrowed(current.getBorrowed() + rollup.getBorrowed());
+            current.setReturned(current.getReturned() + rollup.getReturned());
+            current.setNewOverdue(current.getNewOverdue() + rollup.getNewOverdue());
+            current.setLateFees(current.getLateFees() + rollup.getLateFees());
+            current.setActiveLoans(rollup.getActiveLoans());
+            current.setPeakActiveLoans(Math.max(current.getPeakActiveLoans(), rollup.getActiveLoans()));
+        }
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        backfillPool.shutdownNow();
+    }
+
+    private int validateRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+        long days = ChronoUnit.DAYS.between(from, to) + 1;
+        if (days > properties.getMaxRangeDays()) {
+            throw new IllegalArgumentException("Range must not exceed " + properties.getMaxRangeDays() + " days");
+        }
+        return (int) days;
+    }
+
+    private static LocalDate max(LocalDate a, LocalDate b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static LocalDate min(LocalDate a, LocalDate b) {
+        return a.isBefore(b) ? a : b;
+    }
+}
@@ -0,0 +1,58 @@
+package com.library.service;
+
+import com.library.datasource.DataSourceWorkload;
+import com.library.datasource.Workload;
+import com.library.model.DailyCirculationRollup;
+import com.library.repository.ArchivedBorrowingRecordRepository;
+import com.library.repository.BorrowingRecordRepository;
+import com.library.repository.DailyCirculationRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Пресмята обобщението за един ден от borrowing_records + архива.
+// Отделен bean, за да минава всеки ден през proxy-то (BATCH пул + собствена транзакция)
+// и при паралелен backfill.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DailyRollupCalculator {
+
+    private final BorrowingRecordRepository borrowingRecordRepository;
+    private final ArchivedBorrowingRecordRepository archivedBorrowingRecordRepository;
+    private final DailyCirculationRollupRepository rollupRepository;
+
+    // Повторното пресмятане на ден презаписва реда. closeDay върви на всеки възел и може да
+    // се застъпи с backfill - редът на деня се създава с ON CONFLICT DO NOTHING и се заключва,
+    // така че пресмятанията на един ден вървят едно след друго вместо да се сблъскат по PK.
+    @DataSourceWorkload(Workload.BATCH)
+    @Transactional
+    public DailyCirculationRollup rollUp(LocalDate day) {
+        rollupRepository.insertIfAbsent(day, LocalDateTime.now());
+        DailyCirculationRollup rollup = rollupRepository.findForUpdate(day)
+                .orElseThrow(() -> new IllegalStateException("Rollup row for " + day + " is missing"));
+
+        // Просрочено става заемане със срок предния ден, невърнато до края му
+        LocalDate dueYesterday = day.minusDays(1);
+
+        rollup.setBorrowed(borrowingRecordRepository.countByBorrowDate(day)
+                + archivedBorrowingRecordRepository.countByBorrowDate(day));
+        rollup.setReturned(borrowingRecordRepository.countByReturnDate(day)
+                + archivedBorrowingRecordRepository.countByReturnDate(day));
+        rollup.setNewOverdue(borrowingRecordRepository.countOverdueAfter(dueYesterday)
+                + archivedBorrowingRecordRepository.countOverdueAfter(dueYesterday));
+        rollup.setLateFees(borrowingRecordRepository.sumLateFeesReturnedOn(day)
+                + archivedBorrowingRecordRepository.sumLateFeesReturnedOn(day));
+        rollup.setActiveLoans(borrowingRecordRepository.countActiveAt(day)
+                + archivedBorrowingRecordRepository.countActiveAt(day));
+        rollup.setComputedAt(LocalDateTime.now());
+
+        log.debug("Rolled up circulation for {}: {} borrowed, {} returned",
+                day, rollup.getBorrowed(), rollup.getReturned());
+        return rollup;
+    }
+}
@@ -1,21 +1,49 @@
 package com.library.service;
 
+import com.library.cache.NearCacheCoordinator;
+import com.library.cache.NegativeLookupCache;
+import com.library.cache.SingleFlightLoader;
+import com.library.datasource.DataSourceWorkload;
+import com.library.datasource.ReadYourWrites;
+import com.library.datasource.Workload;
+import com.library.dto.ExportFormat;
+import com.library.dto.KeysetPage;
 import com.library.dto.PatronDTO;
 import com.library.dto.request.CreatePatronRequest;
 import com.library.dto.request.UpdatePatronRequest;
 import com.library.dto.PatronStatistics;
-import com.library.exception.ResourceNotFoundException;
+import com.library.dto.PatronSuggestion;
+import com.library.exception.PatronNotFoundException;
 import com.library.model.MembershipStatus;
 import com.library.model.Patron;
+import com.library.repository.ArchivedBorrowingRecordRepository;
+import com.library.repository.NaturalIdRepository;
 import com.library.repository.PatronRepository;
+import com.library.repository.ProjectionRepository;
+import com.library.repository.ProjectionSpec;
+import com.library.search.PatronSuggestionIndex;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.SerializationFeature;
+import tools.jackson.databind.json.JsonMapper;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -24,9 +52,22 @@ import java.util.stream.Collectors;
 public class PatronService {
 
     private final PatronRepository patronRepository;
+    private final NaturalIdRepository naturalIdRepository;
+    private final ArchivedBorrowingRecordRepository archivedBorrowingRecordRepository;
+    private final PatronSuggestionIndex patronSuggestionIndex;
+    private final NearCacheCoordinator nearCacheCoordinator;
+    private final SingleFlightLoader singleFlightLoader;
+    private final NegativeLookupCache negativeLookupCache;
+    private final ProjectionRepository projectionRepository;
+    private final JsonMapper jsonMapper;
+
+    private static final int EXPORT_CHUNK_SIZE = 500;
+    private static final String CSV_HEADER = "id,firstName,lastName,email,phoneNumber,address,"
+            + "status,membershipDate,totalBooksBorrowed,createdAt,updatedAt";
 
     // CREATE
     @Transactional
+    @CachePut(value = "patrons", key = "#result.id")
     public PatronDTO createPatron(CreatePatronRequest request) {
         log.info("Creating new patron: {} {}", request.getFirstName(), request.getLastName());
         
@@ -45,28 +86,106 @@ public class PatronService {
                 .build();
 
         Patron savedPatron = patronRepository.save(patron);
+        patronSuggestionIndex.index(savedPatron);
+        negativeLookupCache.forget("patrons", "id", savedPatron.getId());
+        negativeLookupCache.forget("patrons", "email", savedPatron.getEmail());
         log.info("Patron created successfully with ID: {}", savedPatron.getId());
         
         return mapToDTO(savedPatron);
     }
 
-    // READ - всички читатели
+    // READ - читатели на страници (keyset по id вместо OFFSET)
     @Transactional(readOnly = true)
-    public List<PatronDTO> getAllPatrons() {
-        log.debug("Fetching all patrons");
-        return patronRepository.findAll()
-                .stream()
+    public KeysetPage<PatronDTO> getPatronsPage(Long afterId, int size) {
+        log.debug("Fetching patrons after ID: {}, size: {}", afterId, size);
+
+        // Взимаме един запис повече, за да знаем дали има следваща страница
+        List<Patron> patrons = patronRepository.findByIdGreaterThanOrderByIdAsc(
+                afterId == null ? 0L : afterId, Limit.of(size + 1));
+
+        boolean hasNext = patrons.size() > size;
+        List<PatronDTO> content = patrons.stream()
+                .limit(size)
                 .map(this::mapToDTO)
                 .collect(Collectors.toList());
+
+        return KeysetPage.<PatronDTO>builder()
+                .content(content)
+                .size(content.size())
+                .hasNext(hasNext)
+                .nextCursor(content.isEmpty() ? afterId : content.get(content.size() - 1).getId())
+                .build();
     }
 
-    // READ - един читател по ID
+    // READ - страница само с избраните полета (?fields=), проекция в SQL заявката
     @Transactional(readOnly = true)
+    public KeysetPage<Map<String, Object>> getPatronsPage(Long afterId, int size, Set<String> fields) {
+        log.debug("Fetching patrons after ID: {}, size: {}, fields: {}", afterId, size, fields);
+
+        long cursor = afterId == null ? 0L : afterId;
+        List<Map<String, Object>> rows = projectionRepository.findAll(ProjectionSpec.PATRONS, fields,
+                (root, cb) -> cb.greaterThan(root.<Long>get("id"), cursor),
+                Sort.by("id"), 0, size + 1);
+
+        boolean hasNext = rows.size() > size;
+        List<Map<String, Object>> content = hasNext ? rows.subList(0, size) : rows;
+
+        return KeysetPage.<Map<String, Object>>builder()
+                .content(content)
+                .size(content.size())
+                .hasNext(hasNext)
+                .nextCursor(content.isEmpty() ? afterId : (Long) content.get(content.size() - 1).get("id"))
+                .build();
+    }
+
+    // EXPORT - поточно извеждане на всички читатели на порции.
+    // Без обща транзакция: всяка порция се чете в собствен persistence context,
+    // така че паметта не расте с броя на редовете.
+    @DataSourceWorkload(Workload.REPORTING)
+    public void exportPatrons(ExportFormat format, OutputStream outputStream) throws IOException {
+        log.info("Exporting patrons as {}", format);
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        ObjectWriter ndjsonWriter = jsonMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+
+        if (format == ExportFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        long lastId = 0L;
+        long exported = 0;
+        List<Patron> chunk;
+        do {
+            chunk = patronRepository.findByIdGreaterThanOrderByIdAsc(lastId, Limit.of(EXPORT_CHUNK_SIZE));
+            for (Patron patron : chunk) {
+                PatronDTO dto = mapToDTO(patron);
+                if (format == ExportFormat.CSV) {
+                    writer.write(toCsvLine(dto));
+                } else {
+                    writer.write(ndjsonWriter.writeValueAsString(dto));
+                }
+                writer.write('\n');
+                lastId = patron.getId();
+            }
+            exported += chunk.size();
+            writer.flush();
+        } while (chunk.size() == EXPORT_CHUNK_SIZE);
+
+        log.info("Exported {} patrons as {}", exported, format);
+    }
+
+    // READ - един читател по ID
+    // Без @Transactional: чакащите при cache miss не трябва да държат връзка към базата
     @Cacheable(value = "patrons", key = "#id")
     public PatronDTO getPatronById(Long id) {
         log.debug("Fetching patron with ID: {}", id);
-        Patron patron = findPatronById(id);
-        return mapToDTO(patron);
+        if (negativeLookupCache.isMissing("patrons", "id", id)) {
+            throw new PatronNotFoundException(id);
+        }
+        // Пълни кеша - чете се от основната база, не от реплика
+        return singleFlightLoader.load("patrons", id,
+                () -> ReadYourWrites.onPrimary(() -> mapToDTO(findPatronById(id))));
     }
 
     // READ - търсене на читатели
@@ -79,8 +198,14 @@ public class PatronService {
                 .collect(Collectors.toList());
     }
 
+    // READ - подсказки по префикс (autocomplete) от in-memory индекса
+    public List<PatronSuggestion> suggestPatrons(String prefix, int limit) {
+        return patronSuggestionIndex.suggest(prefix, limit);
+    }
+
     // READ - читатели със закъснели книги
     @Transactional(readOnly = true)
+    @DataSourceWorkload(Workload.REPORTING)
     public List<PatronDTO> getPatronsWithOverdueBooks() {
         log.debug("Fetching patrons with overdue books");
         return patronRepository.findPatronsWithOverdueBooks()
@@ -103,6 +228,7 @@ public class PatronService {
                 throw new IllegalArgumentException("Patron with email " + request.getEmail() + " already exists");
             }
             patron.setEmail(request.getEmail());
+            negativeLookupCache.forget("patrons", "email", request.getEmail());
         }
 
         // Актуализиране само на непразни полета
@@ -112,7 +238,10 @@ public class PatronService {
         if (request.getAddress() != null) patron.setAddress(request.getAddress());
         if (request.getStatus() != null) patron.setStatus(request.getStatus());
 
-        Patron updatedPatron = patronRepository.save(patron);
+        // flush, за да е актуална @Version в DTO-то и в невалидирането
+        Patron updatedPatron = patronRepository.saveAndFlush(patron);
+        patronSuggestionIndex.index(updatedPatron);
+        nearCacheCoordinator.invalidate("patrons", id, updatedPatron.getVersion());
         log.info("Patron updated successfully with ID: {}", updatedPatron.getId());
         
         return mapToDTO(updatedPatron);
@@ -127,7 +256,9 @@ public class PatronService {
         Patron patron = findPatronById(id);
         patron.setStatus(status);
         
-        Patron updatedPatron = patronRepository.save(patron);
+        Patron updatedPatron = patronRepository.saveAndFlush(patron);
+        patronSuggestionIndex.index(updatedPatron);
+        nearCacheCoordinator.invalidate("patrons", id, updatedPatron.getVersion());
         log.info("Patron status updated successfully");
         
         return mapToDTO(updatedPatron);
@@ -152,15 +283,20 @@ public class PatronService {
         }
         
         patronRepository.delete(patron);
+        patronSuggestionIndex.remove(id);
+        nearCacheCoordinator.invalidate("patrons", id, null);
         log.info("Patron deleted successfully with ID: {}", id);
     }
 
     // READ - статистика за читател
     @Transactional(readOnly = true)
+    @DataSourceWorkload(Workload.REPORTING)
     public PatronStatistics getPatronStatistics(Long id) {
         Patron patron = findPatronById(id);
         
-        long totalBorrowed = patron.getBorrowingRecords().size();
+        // Старите върнати заемания са в borrowing_records_archive
+        long totalBorrowed = patron.getBorrowingRecords().size()
+                + archivedBorrowingRecordRepository.countByPatronId(id);
         long currentlyBorrowed = patron.getBorrowingRecords()
                 .stream()
                 .filter(record -> record.getReturnDate() == null)
@@ -181,10 +317,39 @@ public class PatronService {
                 .build();
     }
 
+    private static String toCsvLine(PatronDTO dto) {
+        return String.join(",",
+                csv(dto.getId()),
+                csv(dto.getFirstName()),
+                csv(dto.getLastName()),
+                csv(dto.getEmail()),
+                csv(dto.getPhoneNumber()),
+                csv(dto.getAddress()),
+                csv(dto.getStatus()),
+                csv(dto.getMembershipDate()),
+                csv(dto.getTotalBooksBorrowed()),
+                csv(dto.getCreatedAt()),
+                csv(dto.getUpdatedAt()));
+    }
+
+    private static String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.contains(",") || text.contains("\"") || text.contains("\n") || text.contains("\r")) {
+            return "\"" + text.replace("\"", "\"\"") + "\"";
+        }
+        return text;
+    }
+
     // Helper метод
     private Patron findPatronById(Long id) {
         return patronRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Patron not found with id: " + id));
+                .orElseThrow(() -> {
+                    negativeLookupCache.markMissing("patrons", "id", id);
+                    return new PatronNotFoundException(id);
+                });
     }
 
     // Mapper метод
@@ -202,15 +367,25 @@ public class PatronService {
                 .totalBooksBorrowed(patron.getTotalBooksBorrowed())
                 .createdAt(patron.getCreatedAt())
                 .updatedAt(patron.getUpdatedAt())
+                .version(patron.getVersion())
                 .build();
     }
     // Добави тези методи в PatronService.java
 
     public PatronDTO getPatronByEmail(String email) {
         log.debug("Fetching patron with email: {}", email);
-        Patron patron = patronRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("Patron not found with email: " + email));
-        return mapToDTO(patron);
+        if (negativeLookupCache.isMissing("patrons", "email", email)) {
+            throw new PatronNotFoundException(email);
+        }
+        return singleFlightLoader.load("patrons:email", email, () -> {
+            Patron patron = ReadYourWrites.onPrimary(
+                            () -> naturalIdRepository.findBySimpleNaturalId(Patron.class, email))
+                    .orElseThrow(() -> {
+                        negativeLookupCache.markMissing("patrons", "email", email);
+                        return new PatronNotFoundException(email);
+                    });
+            return mapToDTO(patron);
+        });
 }
 
 public long countActivePatrons() {
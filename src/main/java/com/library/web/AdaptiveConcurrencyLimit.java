@@ -0,0 +1,81 @@
+package com.library.web;
+
+import com.library.config.ConcurrencyLimitProperties;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Адаптивен лимит на едновременните заявки (gradient): сравнява текущото време за отговор
+// с дългосрочната му средна стойност. Когато базата се забави, градиентът пада под 1
+// и лимитът намалява, преди заявките да започнат да чакат за връзка.
+final class AdaptiveConcurrencyLimit {
+
+    private static final double LONG_RTT_WEIGHT = 0.01;
+
+    private final ConcurrencyLimitProperties properties;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile double limit;
+    private double longRttNanos;
+
+    AdaptiveConcurrencyLimit(ConcurrencyLimitProperties properties) {
+        this.properties = properties;
+        this.limit = properties.getInitialLimit();
+    }
+
+    // Заема място, ако класът не е надхвърлил своя дял от лимита
+    boolean tryAcquire(double share) {
+        int allowed = Math.max(1, (int) (limit * share));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    void release() {
+        inFlight.decrementAndGet();
+    }
+
+    synchronized void onSample(long rttNanos, boolean dropped) {
+        double current = limit;
+        double estimate;
+
+        if (dropped) {
+            estimate = current * properties.getBackoffRatio();
+        } else {
+            if (longRttNanos == 0) {
+                longRttNanos = rttNanos;
+            } else {
+                longRttNanos = longRttNanos * (1 - LONG_RTT_WEIGHT) + rttNanos * LONG_RTT_WEIGHT;
+            }
+            // Базата се е възстановила - дългосрочната средна догонва по-бързо
+            if (longRttNanos > rttNanos * 2) {
+                longRttNanos *= 0.95;
+            }
+
+            // Увеличаваме само ако наистина сме близо до лимита
+            if (inFlight.get() < current / 2) {
+                return;
+            }
+
+            double gradient = Math.max(0.5, Math.min(1.0, longRttNanos / rttNanos));
+            double queueSize = Math.sqrt(current);
+            estimate = current * gradient + queueSize;
+        }
+
+        double smoothed = current * (1 - properties.getSmoothing()) + estimate * properties.getSmoothing();
+        limit = Math.max(properties.getMinLimit(), Math.min(properties.getMaxLimit(), smoothed));
+    }
+
+    int getLimit() {
+        return (int) limit;
+    }
+
+    int getInFlight() {
+        return inFlight.get();
+    }
+}
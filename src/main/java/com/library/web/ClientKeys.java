@@ -0,0 +1,35 @@
+package com.library.web;
+
+import com.library.config.RateLimitProperties;
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+// Идентификатор на клиента: API ключ, ако е сред познатите (library.rate-limit.api-keys),
+// иначе IP адрес. Непознат ключ не дава собствен бюджет - иначе всяка заявка с нов
+// случаен ключ би получила пълен bucket и би изтласкала истинските клиенти от таблицата.
+final class ClientKeys {
+
+    private ClientKeys() {
+    }
+
+    static String of(HttpServletRequest request, RateLimitProperties properties) {
+        String apiKey = request.getHeader(properties.getApiKeyHeader());
+        if (apiKey != null && !apiKey.isBlank() && isKnown(apiKey, properties)) {
+            return "key:" + apiKey;
+        }
+        // Зад reverse proxy: server.forward-headers-strategy=native, за да е верен remoteAddr
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    // Сравнение с постоянно време - не издава колко от ключа съвпада
+    private static boolean isKnown(String apiKey, RateLimitProperties properties) {
+        byte[] candidate = apiKey.getBytes(StandardCharsets.UTF_8);
+        boolean known = false;
+        for (String knownKey : properties.getApiKeys()) {
+            known |= MessageDigest.isEqual(candidate, knownKey.getBytes(StandardCharsets.UTF_8));
+        }
+        return known;
+    }
+}
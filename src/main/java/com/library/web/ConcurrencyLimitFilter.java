@@ -0,0 +1,88 @@
+package com.library.web;
+
+import com.library.config.ConcurrencyLimitProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+
+// Ограничава едновременните заявки към API-то с адаптивен лимит.
+// При претоварване първи се отхвърлят търсенията и справките, последни - заемането и връщането.
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 30)
+@EnableConfigurationProperties(ConcurrencyLimitProperties.class)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final ConcurrencyLimitProperties properties;
+    private final JsonMapper jsonMapper;
+    private final AdaptiveConcurrencyLimit limit;
+    private final Map<EndpointClass, Counter> shed = new EnumMap<>(EndpointClass.class);
+
+    public ConcurrencyLimitFilter(ConcurrencyLimitProperties properties, JsonMapper jsonMapper,
+                                  MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.jsonMapper = jsonMapper;
+        this.limit = new AdaptiveConcurrencyLimit(properties);
+
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            shed.put(endpointClass, Counter.builder("library.concurrency.shed")
+                    .tag("class", endpointClass.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+        Gauge.builder("library.concurrency.limit", limit, AdaptiveConcurrencyLimit::getLimit).register(meterRegistry);
+        Gauge.builder("library.concurrency.inflight", limit, AdaptiveConcurrencyLimit::getInFlight).register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled()
+                || !request.getRequestURI().startsWith("/api/")
+                || request.getRequestURI().startsWith("/api/health");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        EndpointClass endpointClass = EndpointClass.of(request);
+        double share = properties.getShares().getOrDefault(endpointClass, 1.0);
+
+        if (!limit.tryAcquire(share)) {
+            shed.get(endpointClass).increment();
+            log.debug("Shedding {} request {} (limit {}, in flight {})",
+                    endpointClass, request.getRequestURI(), limit.getLimit(), limit.getInFlight());
+            ErrorResponses.write(jsonMapper, request, response, HttpStatus.SERVICE_UNAVAILABLE,
+                    "Server is overloaded, please retry later", 1);
+            return;
+        }
+
+        long started = System.nanoTime();
+        boolean dropped = true;
+        try {
+            filterChain.doFilter(request, response);
+            dropped = response.getStatus() >= 500;
+        } finally {
+            limit.release();
+            // Поточните отговори (export) продължават асинхронно - времето им не е показателно
+            if (!request.isAsyncStarted()) {
+                limit.onSample(System.nanoTime() - started, dropped);
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.library.web;
+
+import com.library.datasource.DatabaseCircuitBreaker;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.time.Instant;
+
+// Режим само за четене, докато базата е недостъпна (отворен DatabaseCircuitBreaker):
+// промените се отказват веднага с 503, а четенията се обслужват от кешовете с маркер за остаряване.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 25)
+@RequiredArgsConstructor
+public class DegradedModeFilter extends OncePerRequestFilter {
+
+    static final String WARNING_HEADER = "Warning";
+    static final String DEGRADED_SINCE_HEADER = "X-Degraded-Since";
+
+    private static final long RETRY_AFTER_SECONDS = 5;
+
+    private final ObjectProvider<DatabaseCircuitBreaker> breaker;
+    private final JsonMapper jsonMapper;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        DatabaseCircuitBreaker circuitBreaker = breaker.getIfAvailable();
+        return circuitBreaker == null
+                || !circuitBreaker.isOpen()
+                || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Instant openedAt = breaker.getObject().getOpenedAt();
+        if (openedAt == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String method = request.getMethod();
+        if (!"GET".equals(method) && !"HEAD".equals(method)) {
+            ErrorResponses.write(jsonMapper, request, response, HttpStatus.SERVICE_UNAVAILABLE,
+                    "Database is unavailable, the API is temporarily read-only", RETRY_AFTER_SECONDS);
+            return;
+        }
+
+        // Данните може да са от преди отварянето на прекъсвача
+        response.setHeader(WARNING_HEADER, "110 - \"Response is Stale\"");
+        response.setHeader(DEGRADED_SINCE_HEADER, openedAt.toString());
+        filterChain.doFilter(request, response);
+    }
+}
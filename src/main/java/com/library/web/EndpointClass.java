@@ -0,0 +1,33 @@
+package com.library.web;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+// Клас на крайна точка - общ за rate limiting и приоритетно отхвърляне на заявки
+public enum EndpointClass {
+    CIRCULATION,
+    ADMIN,
+    READ,
+    SEARCH,
+    REPORT;
+
+    public static EndpointClass of(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        String method = request.getMethod();
+
+        if (path.startsWith("/api/borrowings/borrow") || path.startsWith("/api/borrowings/return")
+                || path.endsWith("/extend")) {
+            return CIRCULATION;
+        }
+        if (path.contains("/search") || path.endsWith("/suggest")) {
+            return SEARCH;
+        }
+        if (path.startsWith("/api/analytics") || path.endsWith("/export") || path.contains("/stats") || path.endsWith("/statistics")
+                || path.endsWith("/most-borrowed") || path.endsWith("/overdue") || path.endsWith("/history")) {
+            return REPORT;
+        }
+        if (!"GET".equals(method) && !"HEAD".equals(method)) {
+            return ADMIN;
+        }
+        return READ;
+    }
+}
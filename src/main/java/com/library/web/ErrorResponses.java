@@ -0,0 +1,35 @@
+package com.library.web;
+
+import com.library.exception.ApiError;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+// Отговор с ApiError от филтри, които отказват заявката преди DispatcherServlet
+final class ErrorResponses {
+
+    private ErrorResponses() {
+    }
+
+    static void write(JsonMapper jsonMapper, HttpServletRequest request, HttpServletResponse response,
+                      HttpStatus status, String message, long retryAfterSeconds) throws IOException {
+        ApiError error = ApiError.builder()
+                .timestamp(LocalDateTime.now())
+                .status(status.value())
+                .error(status.getReasonPhrase())
+                .message(message)
+                .path("uri=" + request.getRequestURI())
+                .build();
+
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        jsonMapper.writeValue(response.getOutputStream(), error);
+    }
+}
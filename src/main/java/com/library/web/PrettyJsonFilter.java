@@ -0,0 +1,51 @@
+package com.library.web;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+
+// Форматира JSON отговора само при ?pretty=true - за ръчна отладка.
+// Останалите заявки минават без буфериране и без отстъпи.
+@Component
+@RequiredArgsConstructor
+public class PrettyJsonFilter extends OncePerRequestFilter {
+
+    private final JsonMapper jsonMapper;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"true".equalsIgnoreCase(request.getParameter("pretty"))
+                || request.getRequestURI().endsWith("/export");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        filterChain.doFilter(request, wrapper);
+
+        byte[] body = wrapper.getContentAsByteArray();
+        if (body.length > 0 && isJson(wrapper.getContentType())) {
+            byte[] pretty = jsonMapper.writerWithDefaultPrettyPrinter()
+                    .writeValueAsBytes(jsonMapper.readTree(body));
+            wrapper.resetBuffer();
+            wrapper.getOutputStream().write(pretty);
+        }
+        wrapper.copyBodyToResponse();
+    }
+
+    private static boolean isJson(String contentType) {
+        return contentType != null
+                && MediaType.APPLICATION_JSON.isCompatibleWith(MediaType.parseMediaType(contentType));
+    }
+}
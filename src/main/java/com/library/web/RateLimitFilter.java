@@ -0,0 +1,106 @@
+package com.library.web;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.library.config.RateLimitProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Ограничава броя заявки на клиент (API ключ или IP) с отделен бюджет за всеки клас крайни точки,
+// за да не може една интеграция да изчерпи пула от връзки за сметка на заемането на книги.
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimitProperties properties;
+    private final JsonMapper jsonMapper;
+    private final Cache<BucketKey, TokenBucket> buckets;
+    private final Map<EndpointClass, Counter> allowed = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, Counter> rejected = new EnumMap<>(EndpointClass.class);
+
+    public RateLimitFilter(RateLimitProperties properties, JsonMapper jsonMapper, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.jsonMapper = jsonMapper;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxClients())
+                .expireAfterAccess(properties.getIdleTimeout())
+                .build();
+
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            String tag = endpointClass.name().toLowerCase();
+            allowed.put(endpointClass, Counter.builder("library.ratelimit.requests")
+                    .tag("class", tag).tag("outcome", "allowed").register(meterRegistry));
+            rejected.put(endpointClass, Counter.builder("library.ratelimit.requests")
+                    .tag("class", tag).tag("outcome", "rejected").register(meterRegistry));
+        }
+        Gauge.builder("library.ratelimit.buckets", buckets, Cache::estimatedSize).register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled()
+                || !request.getRequestURI().startsWith("/api/")
+                || request.getRequestURI().startsWith("/api/health");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        EndpointClass endpointClass = EndpointClass.of(request);
+        RateLimitProperties.Budget budget = properties.getBudgets().get(endpointClass);
+        if (budget == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long now = System.nanoTime();
+        BucketKey bucketKey = new BucketKey(ClientKeys.of(request, properties), endpointClass);
+        TokenBucket bucket = buckets.get(bucketKey,
+                key -> new TokenBucket(budget.getCapacity(), budget.getRefillPerSecond(), now));
+
+        long waitNanos = bucket.tryConsume(now);
+        if (waitNanos == 0) {
+            allowed.get(endpointClass).increment();
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        rejected.get(endpointClass).increment();
+        reject(request, response, endpointClass, waitNanos);
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response,
+                        EndpointClass endpointClass, long waitNanos) throws IOException {
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        log.debug("Rate limit exceeded for {} on {} ({})", request.getRemoteAddr(), request.getRequestURI(), endpointClass);
+
+        ErrorResponses.write(jsonMapper, request, response, HttpStatus.TOO_MANY_REQUESTS,
+                "Rate limit exceeded for " + endpointClass.name().toLowerCase()
+                        + " requests, retry in " + retryAfterSeconds + " s",
+                retryAfterSeconds);
+    }
+
+    private record BucketKey(String client, EndpointClass endpointClass) {
+    }
+}
@@ -0,0 +1,108 @@
+package com.library.web;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.library.config.RateLimitProperties;
+import com.library.config.ReplicaProperties;
+import com.library.datasource.ReadYourWrites;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+// Read-your-writes при реплики: след успешна промяна клиентът чете от основната база
+// за sticky-window, за да не види старите данни от изоставаща реплика.
+// Картата recentWriters е само на този възел, затова закачането пътува и с клиента -
+// бисквитка със срока му, която всеки възел зад load balancer-а проверява.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 40)
+@ConditionalOnProperty(name = "library.datasource.replica.nodes[0].url")
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    static final String PIN_COOKIE = "library-ryw";
+
+    private final RateLimitProperties rateLimitProperties;
+    private final Duration stickyWindow;
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReadYourWritesFilter(ReplicaProperties replicaProperties, RateLimitProperties rateLimitProperties) {
+        this.rateLimitProperties = rateLimitProperties;
+        this.stickyWindow = replicaProperties.getStickyWindow();
+        this.recentWriters = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(replicaProperties.getStickyWindow())
+                .build();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String client = ClientKeys.of(request, rateLimitProperties);
+        boolean write = !"GET".equals(request.getMethod()) && !"HEAD".equals(request.getMethod());
+
+        if (write) {
+            // След тялото на отговора заглавията вече може да са изпратени - бисквитката
+            // се задава предварително; неуспешна промяна само чете от основната база за кратко
+            issuePin(response);
+        }
+
+        ReadYourWrites.pin(write || recentWriters.getIfPresent(client) != null || hasValidPin(request));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReadYourWrites.clear();
+            if (write && response.getStatus() < 400) {
+                recentWriters.put(client, Boolean.TRUE);
+            }
+        }
+    }
+
+    private void issuePin(HttpServletResponse response) {
+        long expiresAt = System.currentTimeMillis() + stickyWindow.toMillis();
+        ResponseCookie cookie = ResponseCookie.from(PIN_COOKIE, Long.toString(expiresAt))
+                .path("/api")
+                .maxAge(stickyWindow.toSeconds() + 1)
+                .httpOnly(true)
+                .sameSite("Lax")
+                .build();
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+    }
+
+    // Срокът се проверява и тук, а не само от клиента; по-далечен от sticky-window
+    // не се приема, за да не може клиент да се закачи за основната база завинаги
+    private boolean hasValidPin(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        for (Cookie cookie : cookies) {
+            if (PIN_COOKIE.equals(cookie.getName())) {
+                try {
+                    long expiresAt = Long.parseLong(cookie.getValue());
+                    return expiresAt > now && expiresAt <= now + stickyWindow.toMillis();
+                } catch (NumberFormatException ex) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,33 @@
+package com.library.web;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Token bucket без заключване (GCRA): пази се само "теоретичното време на пристигане"
+// на следващата заявка в един AtomicLong и се обновява с CAS.
+final class TokenBucket {
+
+    private final long emissionIntervalNanos;
+    private final long burstNanos;
+    private final AtomicLong theoreticalArrival;
+
+    TokenBucket(long capacity, double refillPerSecond, long nowNanos) {
+        this.emissionIntervalNanos = (long) (1_000_000_000L / refillPerSecond);
+        this.burstNanos = capacity * emissionIntervalNanos;
+        this.theoreticalArrival = new AtomicLong(nowNanos);
+    }
+
+    // 0 - заявката е пропусната; иначе след колко наносекунди ще има свободен token
+    long tryConsume(long nowNanos) {
+        while (true) {
+            long current = theoreticalArrival.get();
+            long next = Math.max(current, nowNanos) + emissionIntervalNanos;
+            long allowedAt = next - burstNanos;
+            if (allowedAt > nowNanos) {
+                return allowedAt - nowNanos;
+            }
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,20 @@
+-- Sequences за pooled генериране на id (allocationSize = 50 в entity-тата).
+-- Стойността се поставя на MAX(id) + 50: pooled оптимизаторът на Hibernate
+-- използва nextval като горна граница на блока, така че първото ново id е MAX(id) + 1.
+
+CREATE SEQUENCE IF NOT EXISTS books_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS patrons_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS borrowing_records_seq START WITH 1 INCREMENT BY 50;
+
+DO $$
+BEGIN
+    IF to_regclass('books') IS NOT NULL THEN
+        PERFORM setval('books_seq', COALESCE((SELECT MAX(id) FROM books), 0) + 50, false);
+    END IF;
+    IF to_regclass('patrons') IS NOT NULL THEN
+        PERFORM setval('patrons_seq', COALESCE((SELECT MAX(id) FROM patrons), 0) + 50, false);
+    END IF;
+    IF to_regclass('borrowing_records') IS NOT NULL THEN
+        PERFORM setval('borrowing_records_seq', COALESCE((SELECT MAX(id) FROM borrowing_records), 0) + 50, false);
+    END IF;
+END $$;
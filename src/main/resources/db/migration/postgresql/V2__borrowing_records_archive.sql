@@ -0,0 +1,22 @@
+-- Архив на върнатите заемания (виж BorrowingArchiveService).
+-- Без външни ключове: историята остава, дори книгата или читателят да бъдат изтрити.
+
+CREATE TABLE IF NOT EXISTS borrowing_records_archive (
+    id                 BIGINT       PRIMARY KEY,
+    book_id            BIGINT       NOT NULL,
+    book_title         VARCHAR(200),
+    patron_id          BIGINT       NOT NULL,
+    patron_name        VARCHAR(101),
+    borrow_date        DATE         NOT NULL,
+    due_date           DATE         NOT NULL,
+    return_date        DATE         NOT NULL,
+    actual_return_date DATE,
+    status             VARCHAR(20)  NOT NULL,
+    late_fee           DOUBLE PRECISION,
+    notes              VARCHAR(500),
+    created_at         TIMESTAMP(6),
+    archived_at        TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_borrowing_archive_book_id ON borrowing_records_archive (book_id);
+CREATE INDEX IF NOT EXISTS idx_borrowing_archive_patron_id ON borrowing_records_archive (patron_id);
@@ -0,0 +1,60 @@
+-- Основните таблици за нова (празна) база. В съществуващите бази, създадени
+-- с ddl-auto, всичко вече е налице и скриптът не променя нищо.
+
+CREATE TABLE IF NOT EXISTS books (
+    id               BIGINT       PRIMARY KEY,
+    title            VARCHAR(200) NOT NULL,
+    author           VARCHAR(100) NOT NULL,
+    isbn             VARCHAR(20)  NOT NULL UNIQUE,
+    publication_year INTEGER,
+    publisher        VARCHAR(255),
+    status           VARCHAR(20)  NOT NULL,
+    description      TEXT,
+    created_at       TIMESTAMP(6),
+    updated_at       TIMESTAMP(6),
+    version          BIGINT
+);
+
+CREATE TABLE IF NOT EXISTS patrons (
+    id                   BIGINT       PRIMARY KEY,
+    first_name           VARCHAR(50)  NOT NULL,
+    last_name            VARCHAR(50)  NOT NULL,
+    email                VARCHAR(100) NOT NULL UNIQUE,
+    phone_number         VARCHAR(20),
+    address              VARCHAR(255),
+    membership_date      DATE         NOT NULL,
+    status               VARCHAR(20)  NOT NULL,
+    total_books_borrowed INTEGER,
+    created_at           TIMESTAMP(6),
+    updated_at           TIMESTAMP(6),
+    version              BIGINT
+);
+
+CREATE TABLE IF NOT EXISTS borrowing_records (
+    id                 BIGINT       PRIMARY KEY,
+    book_id            BIGINT       NOT NULL REFERENCES books (id),
+    patron_id          BIGINT       NOT NULL REFERENCES patrons (id),
+    borrow_date        DATE         NOT NULL,
+    due_date           DATE         NOT NULL,
+    return_date        DATE,
+    actual_return_date DATE,
+    status             VARCHAR(20)  NOT NULL,
+    late_fee           DOUBLE PRECISION,
+    notes              VARCHAR(500),
+    created_at         TIMESTAMP(6)
+);
+
+CREATE INDEX IF NOT EXISTS idx_borrowing_book_id ON borrowing_records (book_id);
+CREATE INDEX IF NOT EXISTS idx_borrowing_patron_id ON borrowing_records (patron_id);
+CREATE INDEX IF NOT EXISTS idx_borrowing_dates ON borrowing_records (borrow_date, return_date);
+
+CREATE TABLE IF NOT EXISTS cache_invalidations (
+    id             BIGSERIAL    PRIMARY KEY,
+    cache_name     VARCHAR(50)  NOT NULL,
+    entity_id      BIGINT       NOT NULL,
+    entity_version BIGINT,
+    origin_node    VARCHAR(64)  NOT NULL,
+    created_at     TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_cache_invalidations_created_at ON cache_invalidations (created_at);
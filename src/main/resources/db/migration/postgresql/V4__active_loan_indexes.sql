@@ -0,0 +1,16 @@
+-- Частични индекси само върху отворените заемания (return_date IS NULL).
+-- Те остават малки, колкото и да расте историята, и обслужват:
+--   findByBookIdAndReturnDateIsNull / existsByBookIdAndReturnDateIsNull -> uk_borrowing_open_book
+--   findByPatronIdAndReturnDateIsNull                                  -> idx_borrowing_open_patron
+--   findByReturnDateIsNullAndDueDateBefore (закъснели)                 -> idx_borrowing_open_due_date
+-- Уникалният индекс гарантира на ниво база най-много едно отворено заемане на книга.
+-- Ако вече има дублирани отворени заемания, миграцията ще спре - трябва да се затворят ръчно.
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_borrowing_open_book
+    ON borrowing_records (book_id) WHERE return_date IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_borrowing_open_patron
+    ON borrowing_records (patron_id) WHERE return_date IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_borrowing_open_due_date
+    ON borrowing_records (due_date) WHERE return_date IS NULL;
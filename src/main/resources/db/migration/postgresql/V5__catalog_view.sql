@@ -0,0 +1,39 @@
+-- Read модел на каталога (виж CatalogProjection). Поддържа се от приложението
+-- в транзакцията на всяка промяна, затова тук само се създава и попълва веднъж.
+
+CREATE TABLE IF NOT EXISTS catalog_view (
+    book_id           BIGINT       PRIMARY KEY,
+    isbn              VARCHAR(20)  NOT NULL,
+    title             VARCHAR(200) NOT NULL,
+    author            VARCHAR(100) NOT NULL,
+    publisher         VARCHAR(100),
+    publication_year  INTEGER,
+    status            VARCHAR(20)  NOT NULL,
+    available         BOOLEAN      NOT NULL,
+    current_patron_id BIGINT,
+    current_due_date  DATE,
+    borrow_count      BIGINT       NOT NULL,
+    updated_at        TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_catalog_available_title ON catalog_view (available, title);
+CREATE INDEX IF NOT EXISTS idx_catalog_author ON catalog_view (author);
+-- Само заетите книги имат срок
+CREATE INDEX IF NOT EXISTS idx_catalog_due_date ON catalog_view (current_due_date)
+    WHERE current_due_date IS NOT NULL;
+-- Търсенето по начало (StartingWithIgnoreCase) се превежда до upper(col) LIKE 'X%'
+CREATE INDEX IF NOT EXISTS idx_catalog_title_prefix ON catalog_view (upper(title) text_pattern_ops);
+CREATE INDEX IF NOT EXISTS idx_catalog_author_prefix ON catalog_view (upper(author) text_pattern_ops);
+
+INSERT INTO catalog_view (book_id, isbn, title, author, publisher, publication_year, status, available,
+                          current_patron_id, current_due_date, borrow_count, updated_at)
+SELECT b.id, b.isbn, b.title, b.author, b.publisher, b.publication_year, b.status, b.status = 'AVAILABLE',
+       cur.patron_id, cur.due_date,
+       COALESCE(live.cnt, 0) + COALESCE(archived.cnt, 0),
+       now()
+FROM books b
+LEFT JOIN borrowing_records cur ON cur.book_id = b.id AND cur.return_date IS NULL
+LEFT JOIN (SELECT book_id, COUNT(*) AS cnt FROM borrowing_records GROUP BY book_id) live ON live.book_id = b.id
+LEFT JOIN (SELECT book_id, COUNT(*) AS cnt FROM borrowing_records_archive GROUP BY book_id) archived
+       ON archived.book_id = b.id
+ON CONFLICT (book_id) DO NOTHING;
@@ -0,0 +1,32 @@
+-- Outbox на събитията от заеманията (виж CirculationEventOutbox) и състоянието на relay-а.
+
+CREATE SEQUENCE IF NOT EXISTS circulation_events_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS circulation_events (
+    id                  BIGINT       PRIMARY KEY,
+    feed_position       BIGINT,
+    event_type          VARCHAR(30)  NOT NULL,
+    book_id             BIGINT       NOT NULL,
+    patron_id           BIGINT,
+    borrowing_record_id BIGINT,
+    due_date            DATE,
+    book_status         VARCHAR(20),
+    previous_status     VARCHAR(20),
+    late_fee            DOUBLE PRECISION,
+    occurred_at         TIMESTAMP(6) NOT NULL
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_circulation_events_position ON circulation_events (feed_position);
+-- Relay-ят търси само непубликуваните - индексът остава малък
+CREATE INDEX IF NOT EXISTS idx_circulation_events_pending ON circulation_events (id)
+    WHERE feed_position IS NULL;
+
+CREATE TABLE IF NOT EXISTS circulation_feed_state (
+    id            BIGINT       PRIMARY KEY,
+    last_position BIGINT       NOT NULL,
+    updated_at    TIMESTAMP(6) NOT NULL
+);
+
+INSERT INTO circulation_feed_state (id, last_position, updated_at)
+VALUES (1, 0, now())
+ON CONFLICT (id) DO NOTHING;
@@ -0,0 +1,19 @@
+-- Дневни обобщения на заеманията (виж CirculationRollupService).
+-- Редовете се пишат при затваряне на деня или с backfill - тук не се попълват.
+
+CREATE TABLE IF NOT EXISTS daily_circulation_rollups (
+    day          DATE             PRIMARY KEY,
+    borrowed     BIGINT           NOT NULL,
+    returned     BIGINT           NOT NULL,
+    new_overdue  BIGINT           NOT NULL,
+    late_fees    DOUBLE PRECISION NOT NULL,
+    active_loans BIGINT           NOT NULL,
+    computed_at  TIMESTAMP(6)     NOT NULL
+);
+
+-- Пресмятането на един ден търси по точна дата; borrow_date вече е покрит от idx_borrowing_dates
+CREATE INDEX IF NOT EXISTS idx_borrowing_return_date ON borrowing_records (return_date);
+CREATE INDEX IF NOT EXISTS idx_borrowing_due_date ON borrowing_records (due_date);
+CREATE INDEX IF NOT EXISTS idx_borrowing_archive_borrow_date ON borrowing_records_archive (borrow_date);
+CREATE INDEX IF NOT EXISTS idx_borrowing_archive_return_date ON borrowing_records_archive (return_date);
+CREATE INDEX IF NOT EXISTS idx_borrowing_archive_due_date ON borrowing_records_archive (due_date);
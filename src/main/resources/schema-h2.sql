@@ -0,0 +1,10 @@
+-- H2 няма частични индекси. Изпълнява се след като Hibernate създаде схемата
+-- (spring.jpa.defer-datasource-initialization), само за вградена база.
+-- Генерираната колона е NULL за върнатите заемания, а уникалният индекс допуска много NULL-и,
+-- така че ограничението важи само за отворените - както uk_borrowing_open_book в PostgreSQL.
+
+ALTER TABLE borrowing_records ADD COLUMN IF NOT EXISTS open_book_id BIGINT
+    GENERATED ALWAYS AS (CASE WHEN return_date IS NULL THEN book_id END);
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_borrowing_open_book ON borrowing_records (open_book_id);
+CREATE INDEX IF NOT EXISTS idx_borrowing_open_due_date ON borrowing_records (due_date, return_date);
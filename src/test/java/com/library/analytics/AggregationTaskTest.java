@@ -0,0 +1,64 @@
+package com.library.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AggregationTaskTest {
+
+    private final ForkJoinPool pool = ForkJoinPool.commonPool();
+
+    // 10 заемания в сегменти по 3 реда - сливане през няколко нива
+    private CirculationColumnStore store() {
+        CirculationColumnStore store = new CirculationColumnStore(3);
+        for (int i = 0; i < 10; i++) {
+            long bookId = i % 2 == 0 ? 100 : 200;
+            int borrowDay = 1_000 + i;
+            int returnDay = i < 8 ? borrowDay + 20 : CirculationColumnStore.OPEN;
+            store.upsert(i + 1, bookId, 1, borrowDay, borrowDay + 14, returnDay,
+                    bookId == 100 ? "Author A" : "Author B", "Publisher");
+        }
+        return store;
+    }
+
+    @Test
+    void aggregatesAcrossSegments() {
+        ColumnSegment[] segments = store().segments();
+        assertThat(segments.length).isEqualTo(4);
+
+        GroupAccumulator totals = pool.invoke(new AggregationTask(segments, 0, segments.length,
+                GroupBy.BOOK, Integer.MIN_VALUE + 1, Integer.MAX_VALUE));
+
+        assertThat(totals.size()).isEqualTo(2);
+        int book100 = totals.key(0) == 100 ? 0 : 1;
+        int book200 = 1 - book100;
+        assertThat(totals.loans(book100)).isEqualTo(5);
+        assertThat(totals.open(book100)).isEqualTo(1);
+        assertThat(totals.late(book100)).isEqualTo(4);
+        assertThat(totals.loanDays(book100)).isEqualTo(80);
+        assertThat(totals.loans(book200)).isEqualTo(5);
+        assertThat(totals.open(book200)).isEqualTo(1);
+    }
+
+    // from/to по дата на заемане, включително
+    @Test
+    void filtersByBorrowDay() {
+        ColumnSegment[] segments = store().segments();
+
+        GroupAccumulator totals = pool.invoke(new AggregationTask(segments, 0, segments.length,
+                GroupBy.PATRON, 1_002, 1_005));
+
+        assertThat(totals.size()).isEqualTo(1);
+        assertThat(totals.loans(0)).isEqualTo(4);
+    }
+
+    @Test
+    void emptyStoreGivesNoGroups() {
+        GroupAccumulator totals = pool.invoke(new AggregationTask(new ColumnSegment[0], 0, 0,
+                GroupBy.AUTHOR, Integer.MIN_VALUE + 1, Integer.MAX_VALUE));
+
+        assertThat(totals.size()).isZero();
+    }
+}
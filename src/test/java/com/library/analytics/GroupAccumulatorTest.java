@@ -0,0 +1,82 @@
+package com.library.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GroupAccumulatorTest {
+
+    @Test
+    void countsOpenReturnedAndLateLoans() {
+        GroupAccumulator accumulator = new GroupAccumulator();
+        // Отворено заемане
+        accumulator.add(5, 100, 114, CirculationColumnStore.OPEN);
+        // Върнато навреме след 10 дни
+        accumulator.add(5, 100, 114, 110);
+        // Върнато 6 дни след срока
+        accumulator.add(5, 100, 114, 120);
+
+        assertThat(accumulator.size()).isEqualTo(1);
+        assertThat(accumulator.key(0)).isEqualTo(5);
+        assertThat(accumulator.loans(0)).isEqualTo(3);
+        assertThat(accumulator.open(0)).isEqualTo(1);
+        assertThat(accumulator.returned(0)).isEqualTo(2);
+        assertThat(accumulator.loanDays(0)).isEqualTo(30);
+        assertThat(accumulator.late(0)).isEqualTo(1);
+    }
+
+    @Test
+    void returnOnDueDateIsNotLate() {
+        GroupAccumulator accumulator = new GroupAccumulator();
+        accumulator.add(1, 0, 14, 14);
+
+        assertThat(accumulator.late(0)).isZero();
+    }
+
+    @Test
+    void mergeSumsSharedKeysAndAddsNewOnes() {
+        GroupAccumulator left = new GroupAccumulator();
+        left.add(1, 0, 14, 7);
+        left.add(2, 0, 14, CirculationColumnStore.OPEN);
+
+        GroupAccumulator right = new GroupAccumulator();
+        right.add(2, 0, 14, 20);
+        right.add(3, 0, 14, 3);
+
+        GroupAccumulator merged = left.merge(right);
+
+        assertThat(merged).isSameAs(left);
+        assertThat(merged.size()).isEqualTo(3);
+        int slotOfTwo = slotOf(merged, 2);
+        assertThat(merged.loans(slotOfTwo)).isEqualTo(2);
+        assertThat(merged.open(slotOfTwo)).isEqualTo(1);
+        assertThat(merged.returned(slotOfTwo)).isEqualTo(1);
+        assertThat(merged.late(slotOfTwo)).isEqualTo(1);
+        assertThat(merged.loanDays(slotOf(merged, 3))).isEqualTo(3);
+    }
+
+    // Повече групи от началния размер на масивите (64)
+    @Test
+    void growsBeyondInitialCapacity() {
+        GroupAccumulator accumulator = new GroupAccumulator();
+        for (int key = 0; key < 1_000; key++) {
+            accumulator.add(key, 0, 14, CirculationColumnStore.OPEN);
+            accumulator.add(key, 0, 14, 10);
+        }
+
+        assertThat(accumulator.size()).isEqualTo(1_000);
+        for (int slot = 0; slot < accumulator.size(); slot++) {
+            assertThat(accumulator.loans(slot)).isEqualTo(2);
+            assertThat(accumulator.open(slot)).isEqualTo(1);
+        }
+    }
+
+    private static int slotOf(GroupAccumulator accumulator, int key) {
+        for (int slot = 0; slot < accumulator.size(); slot++) {
+            if (accumulator.key(slot) == key) {
+                return slot;
+            }
+        }
+        throw new AssertionError("No group for key " + key);
+    }
+}
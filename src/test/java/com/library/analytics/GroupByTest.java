@@ -0,0 +1,45 @@
+package com.library.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GroupByTest {
+
+    // Сравнение с LocalDate за всеки ден от 1600 до 2400 - високосни години, граници на векове
+    @Test
+    void monthOfMatchesLocalDate() {
+        int first = Math.toIntExact(LocalDate.of(1600, 1, 1).toEpochDay());
+        int last = Math.toIntExact(LocalDate.of(2400, 12, 31).toEpochDay());
+        for (int epochDay = first; epochDay <= last; epochDay++) {
+            LocalDate date = LocalDate.ofEpochDay(epochDay);
+            int expected = date.getYear() * 12 + date.getMonthValue() - 1;
+            if (GroupBy.monthOf(epochDay) != expected) {
+                assertThat(GroupBy.monthOf(epochDay)).as(date.toString()).isEqualTo(expected);
+            }
+        }
+    }
+
+    @Test
+    void monthOfHandlesMonthBoundaries() {
+        assertThat(GroupBy.monthOf(epochDay(2024, 2, 29))).isEqualTo(2024 * 12 + 1);
+        assertThat(GroupBy.monthOf(epochDay(2024, 3, 1))).isEqualTo(2024 * 12 + 2);
+        assertThat(GroupBy.monthOf(epochDay(1969, 12, 31))).isEqualTo(1969 * 12 + 11);
+        assertThat(GroupBy.monthOf(0)).isEqualTo(1970 * 12);
+    }
+
+    @Test
+    void labelsMonthsAndYears() {
+        CirculationColumnStore store = new CirculationColumnStore(4);
+        int key = GroupBy.monthOf(epochDay(2025, 3, 15));
+
+        assertThat(GroupBy.MONTH.label(key, store)).isEqualTo("2025-03");
+        assertThat(GroupBy.YEAR.label(key / 12, store)).isEqualTo("2025");
+    }
+
+    private static int epochDay(int year, int month, int day) {
+        return Math.toIntExact(LocalDate.of(year, month, day).toEpochDay());
+    }
+}
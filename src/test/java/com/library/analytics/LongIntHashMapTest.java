@@ -0,0 +1,66 @@
+package com.library.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LongIntHashMapTest {
+
+    @Test
+    void returnsMissingValueForAbsentKey() {
+        LongIntHashMap map = new LongIntHashMap(4);
+
+        assertThat(map.get(42L, -1)).isEqualTo(-1);
+        assertThat(map.size()).isZero();
+    }
+
+    @Test
+    void overwritingKeepsSize() {
+        LongIntHashMap map = new LongIntHashMap(4);
+        map.put(7L, 1);
+        map.put(7L, 2);
+
+        assertThat(map.get(7L, -1)).isEqualTo(2);
+        assertThat(map.size()).isEqualTo(1);
+    }
+
+    // Растеж далеч над началния капацитет, включително отрицателни и големи ключове
+    @Test
+    void keepsAllEntriesAcrossRehash() {
+        LongIntHashMap map = new LongIntHashMap(4);
+        for (int i = 0; i < 10_000; i++) {
+            map.put(i * 31L - 5_000, i);
+        }
+        map.put(Long.MAX_VALUE, -7);
+
+        assertThat(map.size()).isEqualTo(10_001);
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(map.get(i * 31L - 5_000, -1)).isEqualTo(i);
+        }
+        assertThat(map.get(Long.MAX_VALUE, 0)).isEqualTo(-7);
+        assertThat(map.capacity()).isGreaterThan(2 * 10_000);
+    }
+
+    @Test
+    void slotIterationVisitsEveryEntryOnce() {
+        LongIntHashMap map = new LongIntHashMap(16);
+        map.put(1L, 10);
+        map.put(2L, 20);
+        map.put(1_000_000_000_000L, 30);
+
+        long keySum = 0;
+        int valueSum = 0;
+        int entries = 0;
+        for (int slot = 0; slot < map.capacity(); slot++) {
+            if (map.hasKeyAt(slot)) {
+                keySum += map.keyAt(slot);
+                valueSum += map.valueAt(slot);
+                entries++;
+            }
+        }
+
+        assertThat(entries).isEqualTo(3);
+        assertThat(keySum).isEqualTo(1_000_000_000_003L);
+        assertThat(valueSum).isEqualTo(60);
+    }
+}
@@ -0,0 +1,206 @@
+package com.library.datasource;
+
+import com.library.config.ReplicaProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Две H2 бази в паметта като реплики и трета като основна база; всяка има таблица
+// с името си, за да се види накъде е отишла връзката. Без lag-query - само isValid().
+class ReplicaPoolTest {
+
+    private static final String PRIMARY_URL = "jdbc:h2:mem:replica_pool_primary;DB_CLOSE_DELAY=-1";
+    private static final String REPLICA_A_URL = "jdbc:h2:mem:replica_pool_a;DB_CLOSE_DELAY=-1";
+    private static final String REPLICA_B_URL = "jdbc:h2:mem:replica_pool_b;DB_CLOSE_DELAY=-1";
+    // Никой не слуша на порт 1 - връзката се отказва веднага
+    private static final String UNREACHABLE_URL = "jdbc:h2:tcp://localhost:1/replica_pool_missing";
+
+    private SimpleMeterRegistry meterRegistry;
+    private ReplicaPool pool;
+
+    @BeforeAll
+    static void createDatabases() throws SQLException {
+        createNode(PRIMARY_URL, "primary");
+        createNode(REPLICA_A_URL, "a");
+        createNode(REPLICA_B_URL, "b");
+    }
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        ReadYourWrites.clear();
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    // Репликата не получава заявки до първата успешна проверка
+    @Test
+    void selectsNothingBeforeFirstHealthCheck() {
+        pool = newPool(REPLICA_A_URL, REPLICA_B_URL);
+
+        assertThat(pool.select()).isNull();
+        assertThat(fallbacks()).isEqualTo(1.0);
+    }
+
+    @Test
+    void roundRobinAlternatesBetweenHealthyReplicas() throws SQLException {
+        pool = newPool(REPLICA_A_URL, REPLICA_B_URL);
+        pool.checkHealth();
+
+        List<String> selected = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            selected.add(nodeOf(pool.select()));
+        }
+
+        assertThat(selected.get(0)).isNotEqualTo(selected.get(1));
+        assertThat(selected.get(2)).isEqualTo(selected.get(0));
+        assertThat(selected.get(3)).isEqualTo(selected.get(1));
+        assertThat(List.of(selected.get(0), selected.get(1))).containsExactlyInAnyOrder("a", "b");
+    }
+
+    @Test
+    void unreachableReplicaIsSkipped() throws SQLException {
+        pool = newPool(UNREACHABLE_URL, REPLICA_B_URL);
+        pool.checkHealth();
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(nodeOf(pool.select())).isEqualTo("b");
+        }
+    }
+
+    // Грешка при вземане на връзка изключва репликата до следващата успешна проверка
+    @Test
+    void replicaMarkedUnhealthyReturnsAfterHealthCheck() throws SQLException {
+        pool = newPool(REPLICA_A_URL, REPLICA_B_URL);
+        pool.checkHealth();
+
+        DataSource first = pool.select();
+        pool.markUnhealthy(first, new SQLException("connection refused"));
+        String remaining = nodeOf(pool.select());
+
+        assertThat(nodeOf(pool.select())).isEqualTo(remaining);
+        assertThat(remaining).isNotEqualTo(nodeOf(first));
+
+        pool.checkHealth();
+        assertThat(List.of(nodeOf(pool.select()), nodeOf(pool.select()))).containsExactlyInAnyOrder("a", "b");
+    }
+
+    @Test
+    void readOnlyTransactionReadsFromReplica() throws SQLException {
+        pool = newPool(REPLICA_A_URL);
+        pool.checkHealth();
+        WorkloadRoutingDataSource routing = newRouting(pool);
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(nodeOf(routing)).isEqualTo("a");
+    }
+
+    @Test
+    void writeTransactionUsesPrimary() throws SQLException {
+        pool = newPool(REPLICA_A_URL);
+        pool.checkHealth();
+        WorkloadRoutingDataSource routing = newRouting(pool);
+
+        assertThat(nodeOf(routing)).isEqualTo("primary");
+    }
+
+    // Read-your-writes: закачената заявка чете от основната база и в readOnly транзакция
+    @Test
+    void pinnedReadUsesPrimary() throws SQLException {
+        pool = newPool(REPLICA_A_URL);
+        pool.checkHealth();
+        WorkloadRoutingDataSource routing = newRouting(pool);
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        ReadYourWrites.pin(true);
+
+        assertThat(nodeOf(routing)).isEqualTo("primary");
+    }
+
+    @Test
+    void readFallsBackToPrimaryWithoutHealthyReplica() throws SQLException {
+        pool = newPool(UNREACHABLE_URL);
+        pool.checkHealth();
+        WorkloadRoutingDataSource routing = newRouting(pool);
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(nodeOf(routing)).isEqualTo("primary");
+        assertThat(fallbacks()).isEqualTo(1.0);
+    }
+
+    private ReplicaPool newPool(String... urls) {
+        ReplicaProperties properties = new ReplicaProperties();
+        properties.setLagQuery("");
+        for (String url : urls) {
+            ReplicaProperties.Node node = new ReplicaProperties.Node();
+            node.setUrl(url);
+            node.setMaximumPoolSize(2);
+            properties.getNodes().add(node);
+        }
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("spring.datasource.username", "sa")
+                .withProperty("spring.datasource.password", "");
+        return new ReplicaPool(properties, environment, meterRegistry);
+    }
+
+    private static WorkloadRoutingDataSource newRouting(ReplicaPool pool) {
+        DataSource primary = new DriverManagerDataSource(PRIMARY_URL, "sa", "");
+        Map<Object, Object> targets = new HashMap<>();
+        for (Workload workload : Workload.values()) {
+            targets.put(workload, primary);
+        }
+        WorkloadRoutingDataSource routing = new WorkloadRoutingDataSource(pool);
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+        return routing;
+    }
+
+    private double fallbacks() {
+        return meterRegistry.counter("library.db.replica.fallbacks").count();
+    }
+
+    private static void createNode(String url, String name) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS node (name VARCHAR(20))");
+            statement.execute("DELETE FROM node");
+            statement.execute("INSERT INTO node VALUES ('" + name + "')");
+        }
+    }
+
+    private static String nodeOf(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT name FROM node")) {
+            resultSet.next();
+            return resultSet.getString(1);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.library.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StatsGranularityTest {
+
+    @Test
+    void parsesIgnoringCaseAndWhitespace() {
+        assertThat(StatsGranularity.of("day")).isEqualTo(StatsGranularity.DAY);
+        assertThat(StatsGranularity.of(" Week ")).isEqualTo(StatsGranularity.WEEK);
+        assertThat(StatsGranularity.of("MONTH")).isEqualTo(StatsGranularity.MONTH);
+    }
+
+    @Test
+    void rejectsUnknownGranularity() {
+        assertThatThrownBy(() -> StatsGranularity.of("year"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Granularity must be one of day, week, month");
+    }
+
+    // Седмиците започват в понеделник
+    @Test
+    void weekStartsOnMonday() {
+        // 2025-03-10 е понеделник
+        assertThat(StatsGranularity.WEEK.periodStart(LocalDate.of(2025, 3, 10))).isEqualTo(LocalDate.of(2025, 3, 10));
+        assertThat(StatsGranularity.WEEK.periodStart(LocalDate.of(2025, 3, 16))).isEqualTo(LocalDate.of(2025, 3, 10));
+        // Седмица през границата на годината
+        assertThat(StatsGranularity.WEEK.periodStart(LocalDate.of(2025, 1, 1))).isEqualTo(LocalDate.of(2024, 12, 30));
+        assertThat(StatsGranularity.WEEK.periodEnd(LocalDate.of(2024, 12, 30))).isEqualTo(LocalDate.of(2025, 1, 5));
+    }
+
+    @Test
+    void monthCoversCalendarMonth() {
+        assertThat(StatsGranularity.MONTH.periodStart(LocalDate.of(2024, 2, 17))).isEqualTo(LocalDate.of(2024, 2, 1));
+        assertThat(StatsGranularity.MONTH.periodEnd(LocalDate.of(2024, 2, 1))).isEqualTo(LocalDate.of(2024, 2, 29));
+        assertThat(StatsGranularity.MONTH.periodEnd(LocalDate.of(2025, 2, 1))).isEqualTo(LocalDate.of(2025, 2, 28));
+    }
+
+    @Test
+    void dayIsItsOwnPeriod() {
+        LocalDate day = LocalDate.of(2025, 6, 15);
+
+        assertThat(StatsGranularity.DAY.periodStart(day)).isEqualTo(day);
+        assertThat(StatsGranularity.DAY.periodEnd(day)).isEqualTo(day);
+    }
+}
@@ -0,0 +1,184 @@
+package com.library.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.flywaydb.core.Flyway;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Проверява с EXPLAIN, че заявките за отворени заемания използват частичните индекси от V4.
+// Заявките не са писани на ръка: SQL-ът се взема от Hibernate (StatementInspector) при
+// извикване на истинските методи на BorrowingRecordRepository.
+@Testcontainers(disabledWithoutDocker = true)
+class ActiveLoanIndexTest {
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static final List<String> statements = new CopyOnWriteArrayList<>();
+
+    private static Connection connection;
+    private static EntityManagerFactory entityManagerFactory;
+    private static EntityManager entityManager;
+    private static BorrowingRecordRepository repository;
+
+    @BeforeAll
+    static void migrateAndSeed() throws SQLException {
+        Flyway.configure()
+                .dataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())
+                .locations("classpath:db/migration/postgresql")
+                .load()
+                .migrate();
+
+        connection = DriverManager.getConnection(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("""
+                    INSERT INTO books (id, title, author, isbn, publisher, status, version)
+                    SELECT g, 'Book ' || g, 'Author', 'isbn-' || g, 'Publisher', 'AVAILABLE', 0
+                    FROM generate_series(1, 2000) g""");
+            statement.execute("""
+                    INSERT INTO patrons (id, first_name, last_name, email, address, membership_date,
+                                         status, total_books_borrowed, version)
+                    SELECT g, 'First', 'Last', 'patron' || g || '@example.com', 'Address', CURRENT_DATE,
+                           'ACTIVE', 0, 0
+                    FROM generate_series(1, 500) g""");
+            // Голяма история от върнати заемания
+            statement.execute("""
+                    INSERT INTO borrowing_records (id, book_id, patron_id, borrow_date, due_date, return_date,
+                                                   status, late_fee)
+                    SELECT g, (g % 2000) + 1, (g % 500) + 1, CURRENT_DATE - 30, CURRENT_DATE - 16,
+                           CURRENT_DATE - 20, 'RETURNED', 0
+                    FROM generate_series(1, 50000) g""");
+            // Малко отворени заемания - по едно за книги 1..200
+            statement.execute("""
+                    INSERT INTO borrowing_records (id, book_id, patron_id, borrow_date, due_date, status, late_fee)
+                    SELECT 100000 + g, g, (g % 500) + 1, CURRENT_DATE - 10, CURRENT_DATE + 4 - (g % 20),
+                           'BORROWED', 0
+                    FROM generate_series(1, 200) g""");
+            statement.execute("ANALYZE borrowing_records");
+        }
+
+        LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+        factory.setDataSource(new DriverManagerDataSource(
+                postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword()));
+        factory.setPackagesToScan("com.library.model");
+        factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factory.setJpaPropertyMap(Map.of(
+                AvailableSettings.HBM2DDL_AUTO, "none",
+                AvailableSettings.USE_SECOND_LEVEL_CACHE, false,
+                AvailableSettings.STATEMENT_INSPECTOR, (StatementInspector) sql -> {
+                    statements.add(sql);
+                    return sql;
+                }));
+        factory.afterPropertiesSet();
+        entityManagerFactory = factory.getObject();
+        entityManager = entityManagerFactory.createEntityManager();
+        repository = new JpaRepositoryFactory(entityManager).getRepository(BorrowingRecordRepository.class);
+    }
+
+    @AfterAll
+    static void close() throws SQLException {
+        if (entityManager != null) {
+            entityManager.close();
+        }
+        if (entityManagerFactory != null) {
+            entityManagerFactory.close();
+        }
+        if (connection != null) {
+            connection.close();
+        }
+    }
+
+    @Test
+    void openLoanByBookUsesUniquePartialIndex() throws SQLException {
+        statements.clear();
+        repository.findByBookIdAndReturnDateIsNull(42L);
+        assertThat(explainGenerated(42L)).contains("uk_borrowing_open_book");
+
+        statements.clear();
+        repository.existsByBookIdAndReturnDateIsNull(42L);
+        assertThat(explainGenerated(42L)).contains("uk_borrowing_open_book");
+    }
+
+    @Test
+    void openLoansByPatronUsePartialIndex() throws SQLException {
+        statements.clear();
+        repository.findByPatronIdAndReturnDateIsNull(7L);
+        assertThat(explainGenerated(7L)).contains("idx_borrowing_open_patron");
+    }
+
+    @Test
+    void overdueLoansUsePartialDueDateIndex() throws SQLException {
+        statements.clear();
+        LocalDate today = LocalDate.now();
+        repository.findByReturnDateIsNullAndDueDateBefore(today);
+        assertThat(explainGenerated(Date.valueOf(today))).contains("idx_borrowing_open_due_date");
+    }
+
+    @Test
+    void secondOpenLoanForSameBookIsRejected() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            // Върнато заемане на същата книга е позволено
+            statement.execute("""
+                    INSERT INTO borrowing_records (id, book_id, patron_id, borrow_date, due_date, return_date,
+                                                   status, late_fee)
+                    VALUES (200001, 1, 1, CURRENT_DATE - 5, CURRENT_DATE + 9, CURRENT_DATE, 'RETURNED', 0)""");
+
+            assertThatThrownBy(() -> statement.execute("""
+                    INSERT INTO borrowing_records (id, book_id, patron_id, borrow_date, due_date, status, late_fee)
+                    VALUES (200002, 1, 2, CURRENT_DATE, CURRENT_DATE + 14, 'BORROWED', 0)"""))
+                    .isInstanceOf(SQLException.class)
+                    .extracting(ex -> ((SQLException) ex).getSQLState())
+                    .isEqualTo("23505");
+        }
+    }
+
+    // EXPLAIN на първата заявка към borrowing_records, генерирана от Hibernate
+    // (следващите са за книгата и читателя), със същите стойности на параметрите.
+    // Останалите параметри са лимити на редовете (exists -> fetch first ? rows only).
+    private static String explainGenerated(Object... parameters) throws SQLException {
+        String sql = statements.stream()
+                .filter(statement -> statement.toLowerCase().contains("from borrowing_records"))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No query on borrowing_records in " + statements));
+
+        StringBuilder plan = new StringBuilder();
+        try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+            int parameterCount = statement.getParameterMetaData().getParameterCount();
+            for (int i = 0; i < parameterCount; i++) {
+                statement.setObject(i + 1, i < parameters.length ? parameters[i] : 1);
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    plan.append(resultSet.getString(1)).append('\n');
+                }
+            }
+        }
+        return plan.toString();
+    }
+}
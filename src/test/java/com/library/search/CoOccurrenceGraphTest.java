@@ -0,0 +1,105 @@
+package com.library.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class CoOccurrenceGraphTest {
+
+    private static final double DECAY = 0.9;
+
+    private static CoOccurrenceGraph graph(int landmarkDay) {
+        return new CoOccurrenceGraph(10, 5, DECAY, landmarkDay);
+    }
+
+    private static double count(CoOccurrenceGraph graph, int book, int other, int day) {
+        for (long entry : graph.top(book, 10)) {
+            if (IntCountMap.keyOf(entry) == other) {
+                return graph.countAt(IntCountMap.countOf(entry), day);
+            }
+        }
+        return 0;
+    }
+
+    @Test
+    void countsBooksBorrowedBySamePatron() {
+        CoOccurrenceGraph graph = graph(100);
+        graph.add(1, 7, 100);
+        graph.add(2, 7, 100);
+        graph.add(3, 8, 100);
+
+        assertThat(count(graph, 1, 2, 100)).isEqualTo(1.0);
+        assertThat(count(graph, 2, 1, 100)).isEqualTo(1.0);
+        assertThat(graph.top(3, 10).length).isZero();
+    }
+
+    // Повторно подадено заемане (at-least-once от feed-а) не се брои втори път
+    @Test
+    void replayedBorrowIsNotCountedTwice() {
+        CoOccurrenceGraph graph = graph(100);
+        graph.add(1, 7, 100);
+        graph.add(2, 7, 100);
+        graph.add(2, 7, 100);
+
+        assertThat(count(graph, 1, 2, 100)).isEqualTo(1.0);
+    }
+
+    @Test
+    void olderCoOccurrencesWeighLess() {
+        CoOccurrenceGraph graph = graph(110);
+        graph.add(1, 7, 100);
+        graph.add(2, 7, 100);
+
+        assertThat(count(graph, 1, 2, 110)).isCloseTo(Math.pow(DECAY, 10), within(1e-6));
+    }
+
+    // Индекс, поддържан 30 дни с нощно уплътняване, и пълно изграждане след рестарт
+    // дават еднакви броеве
+    @Test
+    void compactionMatchesRebuildFromScratch() {
+        int[][] borrows = {{1, 7, 100}, {2, 7, 100}, {1, 8, 105}, {2, 8, 112}, {3, 8, 120}, {3, 7, 129}};
+
+        CoOccurrenceGraph running = graph(100);
+        int next = 0;
+        for (int day = 100; day <= 130; day++) {
+            running = running.compacted(day, 0, 0);
+            while (next < borrows.length && borrows[next][2] == day) {
+                running.add(borrows[next][0], borrows[next][1], day);
+                next++;
+            }
+        }
+        running = running.compacted(130, 0, 0);
+
+        CoOccurrenceGraph rebuilt = graph(130);
+        for (int[] borrow : borrows) {
+            rebuilt.add(borrow[0], borrow[1], borrow[2]);
+        }
+
+        for (int book = 1; book <= 3; book++) {
+            for (int other = 1; other <= 3; other++) {
+                assertThat(count(running, book, other, 130))
+                        .isCloseTo(count(rebuilt, book, other, 130), within(1e-4));
+            }
+        }
+        // Двете съвпадения на 3 и 1 са скорошни, тези на 1 и 2 - отпреди месец
+        assertThat(count(rebuilt, 3, 1, 130)).isGreaterThan(count(rebuilt, 1, 2, 130));
+    }
+
+    @Test
+    void compactionDropsFadedPairsAndInactivePatrons() {
+        CoOccurrenceGraph graph = graph(0);
+        graph.add(1, 7, 0);
+        graph.add(2, 7, 0);
+        graph.add(3, 8, 50);
+        graph.add(4, 8, 50);
+
+        // 0.9^60 = 0.0018, 0.9^10 = 0.35
+        CoOccurrenceGraph compacted = graph.compacted(60, 0.1, 30);
+
+        assertThat(compacted.top(1, 10).length).isZero();
+        assertThat(compacted.top(3, 10).length).isEqualTo(1);
+        assertThat(compacted.books()).isEqualTo(2);
+        assertThat(compacted.patrons()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,102 @@
+package com.library.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompressedTrieTest {
+
+    private final CompressedTrie trie = new CompressedTrie();
+
+    @Test
+    void collectsIdsByPrefixInLexicographicOrder() {
+        trie.insert("ivanova", 3);
+        trie.insert("ivan", 1);
+        trie.insert("ivo", 2);
+        trie.insert("petar", 4);
+
+        assertThat(collect("iv", 10)).containsExactly(1L, 3L, 2L);
+        assertThat(collect("ivan", 10)).containsExactly(1L, 3L);
+        assertThat(collect("p", 10)).containsExactly(4L);
+        assertThat(collect("x", 10)).isEmpty();
+    }
+
+    // Префикс, който свършва по средата на етикет на ръб
+    @Test
+    void prefixEndingInsideEdgeLabelMatches() {
+        trie.insert("maria", 1);
+        trie.insert("marin", 2);
+
+        assertThat(collect("mar", 10)).containsExactly(1L, 2L);
+        assertThat(collect("mari", 10)).containsExactly(1L, 2L);
+        assertThat(collect("marix", 10)).isEmpty();
+        assertThat(collect("mariana", 10)).isEmpty();
+    }
+
+    @Test
+    void stopsAtLimit() {
+        for (long id = 1; id <= 20; id++) {
+            trie.insert("georgi" + id, id);
+        }
+
+        assertThat(collect("georgi", 5)).hasSize(5);
+    }
+
+    @Test
+    void sameKeyKeepsAllIds() {
+        trie.insert("dimitrov", 7);
+        trie.insert("dimitrov", 5);
+
+        assertThat(collect("dim", 10)).containsExactly(5L, 7L);
+    }
+
+    @Test
+    void removeDropsOnlyThatIdAndKeepsSiblingsReachable() {
+        trie.insert("ana", 1);
+        trie.insert("anastasia", 2);
+        trie.insert("andrey", 3);
+
+        trie.remove("ana", 1);
+        assertThat(collect("an", 10)).containsExactly(2L, 3L);
+
+        // След сливането на възлите търсенето по средата на ръба продължава да работи
+        trie.remove("andrey", 3);
+        assertThat(collect("anast", 10)).containsExactly(2L);
+        assertThat(collect("a", 10)).containsExactly(2L);
+
+        trie.remove("anastasia", 2);
+        assertThat(collect("a", 10)).isEmpty();
+    }
+
+    @Test
+    void removingUnknownKeyIsNoOp() {
+        trie.insert("elena", 1);
+
+        trie.remove("elen", 1);
+        trie.remove("elena", 2);
+        trie.remove("boris", 1);
+
+        assertThat(collect("el", 10)).containsExactly(1L);
+    }
+
+    @Test
+    void blankKeysAreIgnoredAndClearEmptiesTrie() {
+        trie.insert("", 1);
+        trie.insert(null, 2);
+        trie.insert("nikola", 3);
+
+        assertThat(collect("n", 10)).containsExactly(3L);
+
+        trie.clear();
+        assertThat(collect("n", 10)).isEmpty();
+    }
+
+    private List<Long> collect(String prefix, int limit) {
+        List<Long> out = new ArrayList<>();
+        trie.collect(prefix, limit, out);
+        return out;
+    }
+}
@@ -0,0 +1,95 @@
+package com.library.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IntCountMapTest {
+
+    @Test
+    void incrementsAccumulatePerKey() {
+        IntCountMap map = new IntCountMap(4);
+        map.increment(1, 1f);
+        map.increment(1, 0.5f);
+        map.increment(2, 1f);
+
+        assertThat(map.size()).isEqualTo(2);
+        assertThat(map.get(1)).isEqualTo(1.5f);
+        assertThat(map.get(3)).isEqualTo(0f);
+    }
+
+    @Test
+    void topReturnsLargestCountsFirst() {
+        IntCountMap map = new IntCountMap(4);
+        map.increment(10, 3f);
+        map.increment(20, 0.25f);
+        map.increment(30, 7.5f);
+        map.increment(40, 1f);
+
+        long[] top = map.top(3);
+
+        assertThat(top.length).isEqualTo(3);
+        assertThat(IntCountMap.keyOf(top[0])).isEqualTo(30);
+        assertThat(IntCountMap.countOf(top[0])).isEqualTo(7.5f);
+        assertThat(IntCountMap.keyOf(top[1])).isEqualTo(10);
+        assertThat(IntCountMap.keyOf(top[2])).isEqualTo(40);
+    }
+
+    // Отрицателни id-та не бъркат подредбата на пакетираните стойности
+    @Test
+    void topHandlesNegativeKeysAndGrowth() {
+        IntCountMap map = new IntCountMap(2);
+        for (int key = -500; key < 500; key++) {
+            map.increment(key, key + 1_000);
+        }
+
+        long[] top = map.top(2);
+
+        assertThat(map.size()).isEqualTo(1_000);
+        assertThat(IntCountMap.keyOf(top[0])).isEqualTo(499);
+        assertThat(IntCountMap.keyOf(top[1])).isEqualTo(498);
+    }
+
+    @Test
+    void prunedKeepsTopKScaledByFactor() {
+        IntCountMap map = new IntCountMap(4);
+        map.increment(1, 10f);
+        map.increment(2, 5f);
+        map.increment(3, 2f);
+
+        IntCountMap pruned = map.pruned(2, 0.5, 0);
+
+        assertThat(pruned.size()).isEqualTo(2);
+        assertThat(pruned.get(1)).isEqualTo(5f);
+        assertThat(pruned.get(2)).isEqualTo(2.5f);
+        assertThat(pruned.get(3)).isEqualTo(0f);
+    }
+
+    // Единичното съвпадение избледнява постепенно и отпада чак под minCount
+    @Test
+    void singleCountDecaysGraduallyInsteadOfStaying() {
+        IntCountMap map = new IntCountMap(4);
+        map.increment(1, 1f);
+
+        int rounds = 0;
+        while (map.size() > 0) {
+            map = map.pruned(10, 0.8, 0.1);
+            rounds++;
+        }
+
+        // 0.8^10 = 0.107, 0.8^11 = 0.086
+        assertThat(rounds).isEqualTo(11);
+    }
+
+    @Test
+    void prunedDropsCountsBelowMinimum() {
+        IntCountMap map = new IntCountMap(4);
+        map.increment(1, 2f);
+        map.increment(2, 1f);
+
+        IntCountMap pruned = map.pruned(10, 0.8, 1);
+
+        assertThat(pruned.size()).isEqualTo(1);
+        assertThat(pruned.get(1)).isEqualTo(1.6f);
+    }
+}
@@ -0,0 +1,44 @@
+package com.library.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PatronHistoryTest {
+
+    @Test
+    void keepsBooksUntilFull() {
+        PatronHistory history = new PatronHistory(3);
+        history.add(1);
+        history.add(2);
+
+        assertThat(history.size()).isEqualTo(2);
+        assertThat(history.contains(1)).isTrue();
+        assertThat(history.contains(2)).isTrue();
+        assertThat(history.contains(3)).isFalse();
+    }
+
+    // Кръговият буфер забравя най-старата книга
+    @Test
+    void overwritesOldestWhenFull() {
+        PatronHistory history = new PatronHistory(3);
+        for (int book = 1; book <= 5; book++) {
+            history.add(book);
+        }
+
+        assertThat(history.size()).isEqualTo(3);
+        assertThat(history.contains(1)).isFalse();
+        assertThat(history.contains(2)).isFalse();
+        assertThat(history.contains(3)).isTrue();
+        assertThat(history.contains(5)).isTrue();
+    }
+
+    @Test
+    void emptyHistoryContainsNothing() {
+        PatronHistory history = new PatronHistory(2);
+
+        assertThat(history.size()).isZero();
+        // Незаетите слотове са 0 - не бива да се броят за книга 0
+        assertThat(history.contains(0)).isFalse();
+    }
+}
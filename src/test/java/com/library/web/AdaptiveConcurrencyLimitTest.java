@@ -0,0 +1,114 @@
+package com.library.web;
+
+import com.library.config.ConcurrencyLimitProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimitTest {
+
+    private static final long RTT = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+
+    @Test
+    void acquireRespectsShareOfLimit() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(properties);
+
+        int acquired = 0;
+        while (limit.tryAcquire(0.5)) {
+            acquired++;
+        }
+
+        assertThat(acquired).isEqualTo(10);
+        assertThat(limit.tryAcquire(1.0)).isTrue();
+        limit.release();
+        limit.release();
+        assertThat(limit.tryAcquire(0.5)).isTrue();
+    }
+
+    // Дори много малък дял пропуска поне една заявка
+    @Test
+    void tinyShareStillAllowsOneRequest() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(properties);
+
+        assertThat(limit.tryAcquire(0.01)).isTrue();
+        assertThat(limit.tryAcquire(0.01)).isFalse();
+    }
+
+    @Test
+    void droppedRequestBacksOffSmoothly() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(properties);
+
+        limit.onSample(RTT, true);
+
+        // 20 * 0.8 + (20 * 0.9) * 0.2
+        assertThat(limit.getLimit()).isEqualTo(19);
+    }
+
+    @Test
+    void growsWhileLatencyIsStableAndLoadIsNearLimit() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(properties);
+        occupy(limit, 15);
+
+        for (int i = 0; i < 10; i++) {
+            limit.onSample(RTT, false);
+        }
+
+        assertThat(limit.getLimit()).isGreaterThan(20);
+    }
+
+    @Test
+    void shrinksWhenLatencyRises() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(properties);
+        occupy(limit, 15);
+        for (int i = 0; i < 20; i++) {
+            limit.onSample(RTT, false);
+        }
+        int before = limit.getLimit();
+
+        for (int i = 0; i < 20; i++) {
+            occupy(limit, before);
+            limit.onSample(RTT * 10, false);
+        }
+
+        assertThat(limit.getLimit()).isLessThan(before);
+    }
+
+    // Лимитът не расте, когато не се използва
+    @Test
+    void ignoresSamplesWhenFarBelowLimit() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(properties);
+        occupy(limit, 2);
+
+        for (int i = 0; i < 10; i++) {
+            limit.onSample(RTT, false);
+        }
+
+        assertThat(limit.getLimit()).isEqualTo(20);
+    }
+
+    @Test
+    void staysWithinMinAndMax() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(properties);
+        for (int i = 0; i < 200; i++) {
+            limit.onSample(RTT, true);
+        }
+        assertThat(limit.getLimit()).isEqualTo(properties.getMinLimit());
+
+        properties.setMaxLimit(30);
+        for (int i = 0; i < 500; i++) {
+            occupy(limit, 30);
+            limit.onSample(RTT, false);
+        }
+        assertThat(limit.getLimit()).isEqualTo(30);
+    }
+
+    private static void occupy(AdaptiveConcurrencyLimit limit, int requests) {
+        for (int i = 0; i < requests; i++) {
+            limit.tryAcquire(1.0);
+        }
+    }
+}
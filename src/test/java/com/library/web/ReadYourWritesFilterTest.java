@@ -0,0 +1,79 @@
+package com.library.web;
+
+import com.library.config.RateLimitProperties;
+import com.library.config.ReplicaProperties;
+import com.library.datasource.ReadYourWrites;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadYourWritesFilterTest {
+
+    private final ReadYourWritesFilter filter = new ReadYourWritesFilter(new ReplicaProperties(), new RateLimitProperties());
+
+    @Test
+    void writeIssuesPinCookie() throws ServletException, IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request("POST", "10.0.0.1"), response, (req, res) -> { });
+
+        assertThat(response.getHeader(HttpHeaders.SET_COOKIE)).startsWith(ReadYourWritesFilter.PIN_COOKIE + "=");
+    }
+
+    // Закачането идва с клиента - другият възел не е виждал промяната, но чете от основната база
+    @Test
+    void readWithPinCookiePinsOnAnotherNode() throws ServletException, IOException {
+        MockHttpServletRequest request = request("GET", "10.0.0.2");
+        request.setCookies(pin(System.currentTimeMillis() + 3_000));
+
+        assertThat(pinnedDuring(request)).isTrue();
+    }
+
+    @Test
+    void readWithoutPinUsesReplicas() throws ServletException, IOException {
+        assertThat(pinnedDuring(request("GET", "10.0.0.3"))).isFalse();
+    }
+
+    @Test
+    void expiredPinIsIgnored() throws ServletException, IOException {
+        MockHttpServletRequest request = request("GET", "10.0.0.4");
+        request.setCookies(pin(System.currentTimeMillis() - 1));
+
+        assertThat(pinnedDuring(request)).isFalse();
+    }
+
+    // Срок отвъд sticky-window не се приема - клиентът не може да се закачи завинаги
+    @Test
+    void pinBeyondStickyWindowIsIgnored() throws ServletException, IOException {
+        MockHttpServletRequest request = request("GET", "10.0.0.5");
+        request.setCookies(pin(System.currentTimeMillis() + 3_600_000));
+
+        assertThat(pinnedDuring(request)).isFalse();
+    }
+
+    private boolean pinnedDuring(MockHttpServletRequest request) throws ServletException, IOException {
+        AtomicBoolean pinned = new AtomicBoolean();
+        FilterChain chain = (req, res) -> pinned.set(ReadYourWrites.isPinned());
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        return pinned.get();
+    }
+
+    private static MockHttpServletRequest request(String method, String remoteAddr) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/api/books");
+        request.setRemoteAddr(remoteAddr);
+        return request;
+    }
+
+    private static Cookie pin(long expiresAt) {
+        return new Cookie(ReadYourWritesFilter.PIN_COOKIE, Long.toString(expiresAt));
+    }
+}
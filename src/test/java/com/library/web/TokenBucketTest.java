@@ -0,0 +1,70 @@
+package com.library.web;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void allowsBurstUpToCapacityThenRejects() {
+        TokenBucket bucket = new TokenBucket(5, 10, 0);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(bucket.tryConsume(0)).isZero();
+        }
+        assertThat(bucket.tryConsume(0)).isGreaterThan(0);
+    }
+
+    // Отговорът при отказ е точно времето до следващия token (Retry-After)
+    @Test
+    void rejectionReportsWaitUntilNextToken() {
+        TokenBucket bucket = new TokenBucket(2, 4, 0);
+        bucket.tryConsume(0);
+        bucket.tryConsume(0);
+
+        long wait = bucket.tryConsume(0);
+
+        assertThat(wait).isEqualTo(SECOND / 4);
+        assertThat(bucket.tryConsume(wait - 1)).isGreaterThan(0);
+        assertThat(bucket.tryConsume(wait)).isZero();
+    }
+
+    @Test
+    void refillsAtConfiguredRate() {
+        TokenBucket bucket = new TokenBucket(1, 2, 0);
+        assertThat(bucket.tryConsume(0)).isZero();
+        assertThat(bucket.tryConsume(0)).isGreaterThan(0);
+
+        assertThat(bucket.tryConsume(SECOND / 2)).isZero();
+        assertThat(bucket.tryConsume(SECOND / 2)).isGreaterThan(0);
+    }
+
+    // Дълго бездействие не трупа повече от capacity token-а
+    @Test
+    void idleTimeDoesNotAccumulateBeyondCapacity() {
+        TokenBucket bucket = new TokenBucket(3, 1, 0);
+        long later = 3600 * SECOND;
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(bucket.tryConsume(later)).isZero();
+        }
+        assertThat(bucket.tryConsume(later)).isGreaterThan(0);
+    }
+
+    // Отказаните заявки не изразходват token-и
+    @Test
+    void rejectedRequestsDoNotConsumeTokens() {
+        TokenBucket bucket = new TokenBucket(1, 1, 0);
+        bucket.tryConsume(0);
+        for (int i = 0; i < 100; i++) {
+            bucket.tryConsume(SECOND / 2);
+        }
+
+        assertThat(bucket.tryConsume(SECOND)).isZero();
+    }
+}